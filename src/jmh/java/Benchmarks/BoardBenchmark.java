@@ -0,0 +1,84 @@
+package jmh.java.Benchmarks;
+
+import main.java.Others.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class measures the hot paths of {@link Board} the UI calls while a token is dragged and dropped. Every
+ * operation runs the method once on each position of the {@link PositionCorpus}, the reported time is per call.
+ * <p>
+ * canBeRemoved is called through {@link BoardMoves#CAN_BE_REMOVED}, as its parameters changed since the baseline.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private PositionCorpus.Entry[] corpus;
+
+    @Setup
+    public void setUp() {
+        corpus = PositionCorpus.build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void getValidPositions(Blackhole blackhole) {
+        for (PositionCorpus.Entry entry : corpus) {
+            blackhole.consume(entry.manager.getBoard().getValidPositions(entry.token));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void getNeighbours(Blackhole blackhole) {
+        for (PositionCorpus.Entry entry : corpus) {
+            blackhole.consume(entry.manager.getBoard().getNeighbours(entry.token));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void checkIfMill(Blackhole blackhole) {
+        for (PositionCorpus.Entry entry : corpus) {
+            blackhole.consume(entry.manager.getBoard().checkIfMill(entry.token));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void canBeRemoved(Blackhole blackhole) throws Throwable {
+        for (PositionCorpus.Entry entry : corpus) {
+            Board board = entry.manager.getBoard();
+            blackhole.consume((boolean) BoardMoves.CAN_BE_REMOVED.invokeExact(board, entry.opponent));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void getKeyByValue(Blackhole blackhole) {
+        for (PositionCorpus.Entry entry : corpus) {
+            Board board = entry.manager.getBoard();
+            blackhole.consume(Board.getKeyByValue(board.getBoardPositions(), entry.targetIndex));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package jmh.java.Benchmarks;
+
+import main.java.Others.Board;
+import main.java.Others.GameManager;
+import main.java.Others.Position;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class plays moves through the Position based calls of {@link GameManager} and {@link Board} the UI makes,
+ * so the same move lists can be played by the baseline {@code Board} and by every later version.
+ * <p>
+ * Moves are written as in the move list: "5" places on point 5, "4-5" moves from 4 to 5 and "x12" removes the
+ * token on 12 after a mill, e.g. "4-5x12".
+ */
+
+final class BoardMoves {
+
+    /**
+     * Board.canBeRemoved(Position) as (Board, Position) boolean. The baseline also took whether to update the
+     * mill counts, which is false here.
+     */
+    static final MethodHandle CAN_BE_REMOVED = canBeRemoved();
+
+    // the baseline UI switched the turn and looked for a mill after every drop, later versions do it in
+    // GameManager and do not have these methods
+    private static final Method CHANGE_PLAYER_TURN = baselineMethod("changePlayerTurn");
+    private static final Method UPDATE_MILL_STATUS = baselineMethod("updateMillStatus", Position.class);
+
+    private BoardMoves() {
+    }
+
+    /**
+     * Plays one move
+     *
+     * @param points the positions of the board by their position index, see {@link #points(Board)}
+     * @throws IllegalStateException if the removal of the move is refused
+     */
+    static void play(GameManager manager, Position[] points, String move) {
+        int x = move.indexOf('x');
+        String drop = x < 0 ? move : move.substring(0, x);
+        if (!drop.isEmpty()) {
+            int dash = drop.indexOf('-');
+            Position to = points[Integer.parseInt(drop.substring(dash + 1))];
+            if (dash < 0) {
+                manager.placeToken(to);
+            } else {
+                manager.setSelectedTokenPosition(points[Integer.parseInt(drop.substring(0, dash))]);
+                manager.moveToken(to);
+            }
+            if (CHANGE_PLAYER_TURN != null) {
+                invoke(CHANGE_PLAYER_TURN, manager);
+                invoke(UPDATE_MILL_STATUS, manager, to);
+            }
+        }
+        if (x >= 0 && !manager.removeToken(points[Integer.parseInt(move.substring(x + 1))])) {
+            throw new IllegalStateException("Cannot play " + move);
+        }
+    }
+
+    /**
+     * Whether the token at the position can be removed after a mill
+     */
+    static boolean canBeRemoved(Board board, Position position) {
+        try {
+            return (boolean) CAN_BE_REMOVED.invokeExact(board, position);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The positions of the board by their position index, 1..24
+     */
+    static Position[] points(Board board) {
+        Position[] points = new Position[25];
+        for (Map.Entry<Position, Integer> entry : board.getBoardPositions().entrySet()) {
+            points[entry.getValue()] = entry.getKey();
+        }
+        return points;
+    }
+
+    private static MethodHandle canBeRemoved() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            try {
+                return lookup.findVirtual(Board.class, "canBeRemoved",
+                        MethodType.methodType(boolean.class, Position.class));
+            } catch (NoSuchMethodException e) {
+                MethodHandle baseline = lookup.findVirtual(Board.class, "canBeRemoved",
+                        MethodType.methodType(boolean.class, Position.class, Boolean.class));
+                return MethodHandles.insertArguments(baseline, 2, Boolean.FALSE);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Method baselineMethod(String name, Class<?>... parameterTypes) {
+        try {
+            return GameManager.class.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static void invoke(Method method, GameManager manager, Object... args) {
+        try {
+            method.invoke(manager, args);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot call " + method.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package jmh.java.Benchmarks;
+
+import main.java.Others.Board;
+import main.java.Others.GameManager;
+import main.java.Others.Position;
+import main.java.Others.Token;
+import main.java.Utils.Colour;
+import main.java.Utils.GamePhase;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class counts the move sequences from a position (perft) with moves found only through the Position based
+ * calls of {@link GameManager} and {@link Board} the UI makes, see {@link BoardMoves}. Built against the baseline
+ * (-Dgame.dir, see pom.xml) it counts with the rules of the baseline {@code Board}, which is where the counts of
+ * {@code Tools.Perft.START_COUNTS} come from, so a change of the rules in the rules core shows as a mismatch.
+ * <p>
+ * A move is a drop on an empty point the UI accepts ({@link GameManager#validateTokenPlacement(Position)}, with
+ * the token selected in the movement phase). A drop that forms a mill ({@link GameManager#isMill()}) counts once
+ * for every opponent token that {@code canBeRemoved}. A side with a won game, or with no move in the movement
+ * phase, has no moves.
+ * <p>
+ * There is no undo in the baseline, every position is replayed from the start, so this is slow: depth 6 from
+ * the start takes about 12 minutes on one core.
+ * <p>
+ * Usage: BoardPerft &lt;depth&gt; [moves from the start, e.g. 1 9 2 10 3x9], prints the counts of every depth up
+ * to the given one
+ */
+
+public class BoardPerft {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: BoardPerft <depth> [moves from the start]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        List<String> start = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+
+        PrintStream out = System.out;
+        // the rules calls log to the console on every move
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long begin = System.nanoTime();
+        long[] counts = new long[depth + 1];
+        count(start, depth, counts, 0);
+        long millis = (System.nanoTime() - begin) / 1_000_000L;
+        for (int ply = 0; ply <= depth; ply++) {
+            out.println("depth " + ply + ": " + counts[ply]);
+        }
+        out.println("time=" + millis + "ms");
+    }
+
+    /**
+     * Adds the positions at every depth below the position after the moves to the counts
+     */
+    private static void count(List<String> moves, int depth, long[] counts, int ply) {
+        counts[ply]++;
+        if (ply == depth) {
+            return;
+        }
+        for (String move : legalMoves(moves)) {
+            moves.add(move);
+            count(moves, depth, counts, ply + 1);
+            moves.remove(moves.size() - 1);
+        }
+    }
+
+    /**
+     * The moves of the side to move after the moves from the start
+     */
+    private static List<String> legalMoves(List<String> moves) {
+        List<String> legal = new ArrayList<>();
+        GameManager manager = replay(moves);
+        if (manager.checkWin() != 0
+                || manager.getGamePhase() == GamePhase.MOVEMENT && !manager.anyMovePossible()) {
+            return legal;
+        }
+        Colour mover = manager.colorOnTurn();
+        Board board = manager.getBoard();
+        Position[] points = BoardMoves.points(board);
+        Map<Position, Token> occupied = board.getOccupiedPosition();
+
+        List<Integer> sources = new ArrayList<>();
+        if (manager.getGamePhase() == GamePhase.PLACEMENT) {
+            sources.add(0);
+        } else {
+            for (int index = 1; index < points.length; index++) {
+                Token token = occupied.get(points[index]);
+                if (token != null && token.getColour() == mover) {
+                    sources.add(index);
+                }
+            }
+        }
+        for (int from : sources) {
+            for (int to = 1; to < points.length; to++) {
+                if (occupied.get(points[to]) != null) {
+                    continue;
+                }
+                if (from != 0) {
+                    manager.setSelectedTokenPosition(points[from]);
+                }
+                if (!manager.validateTokenPlacement(points[to])) {
+                    continue;
+                }
+                String drop = from == 0 ? Integer.toString(to) : from + "-" + to;
+                moves.add(drop);
+                GameManager after = replay(moves);
+                moves.remove(moves.size() - 1);
+                if (!after.isMill()) {
+                    legal.add(drop);
+                    continue;
+                }
+                Board afterBoard = after.getBoard();
+                for (Map.Entry<Position, Token> entry : afterBoard.getOccupiedPosition().entrySet()) {
+                    if (entry.getValue().getColour() != mover
+                            && BoardMoves.canBeRemoved(afterBoard, entry.getKey())) {
+                        legal.add(drop + "x" + afterBoard.getBoardPositions().get(entry.getKey()));
+                    }
+                }
+            }
+        }
+        return legal;
+    }
+
+    private static GameManager replay(List<String> moves) {
+        GameManager manager = new GameManager();
+        Position[] points = BoardMoves.points(manager.getBoard());
+        for (String move : moves) {
+            BoardMoves.play(manager, points, move);
+        }
+        return manager;
+    }
+}
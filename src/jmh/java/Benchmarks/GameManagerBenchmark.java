@@ -0,0 +1,57 @@
+package jmh.java.Benchmarks;
+
+import main.java.Others.GameManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class measures the rule checks of {@link GameManager} the UI runs on every drag: whether the side to
+ * move has any move left and whether a drop is legal. Every operation runs the method once on each position of
+ * the {@link PositionCorpus}, the reported time is per call.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameManagerBenchmark {
+
+    private PositionCorpus.Entry[] corpus;
+
+    @Setup
+    public void setUp() {
+        corpus = PositionCorpus.build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void anyMovePossible(Blackhole blackhole) {
+        for (PositionCorpus.Entry entry : corpus) {
+            blackhole.consume(entry.manager.anyMovePossible());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PositionCorpus.SIZE)
+    public void validateTokenPlacement(Blackhole blackhole) {
+        for (PositionCorpus.Entry entry : corpus) {
+            blackhole.consume(entry.manager.validateTokenPlacement(entry.target));
+        }
+    }
+}
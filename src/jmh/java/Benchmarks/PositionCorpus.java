@@ -0,0 +1,110 @@
+package jmh.java.Benchmarks;
+
+import main.java.Others.GameManager;
+import main.java.Others.Position;
+import main.java.Utils.GamePhase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class builds the positions the benchmarks run over by replaying the games of position-corpus.txt with
+ * {@link BoardMoves}, through the Position based calls of {@link GameManager} the UI makes. The games are plain
+ * move lists, so the same positions can be built by the baseline {@code Board} and by every later version, and
+ * runs compare like for like. They are mid-game positions of the placement and the movement phase, taken from
+ * seeded self-play of a shallow alpha-beta search with some random moves mixed in.
+ * <p>
+ * Every line of the file is one game in the notation of the move list, "5" places on point 5, "4-5" moves from
+ * 4 to 5 and "x12" removes the token on 12 after a mill, followed by "|" and the points the benchmarks ask about:
+ * a token of the side to move, a token of the opponent and a point to place or move the token to.
+ */
+
+final class PositionCorpus {
+
+    /**
+     * Number of positions, every benchmark operation loops over all of them
+     */
+    static final int SIZE = 64;
+
+    private static final String RESOURCE = "/position-corpus.txt";
+
+    private PositionCorpus() {
+    }
+
+    static Entry[] build() {
+        // the rules calls log to the console on every move, which would flood the JMH output
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        InputStream in = PositionCorpus.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(RESOURCE + " not found");
+        }
+        Entry[] entries = new Entry[SIZE];
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (int i = 0; i < SIZE; i++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IllegalStateException(RESOURCE + " has only " + i + " games, " + SIZE + " needed");
+                }
+                entries[i] = replay(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Replays one game of the corpus
+     *
+     * @param line the moves, "|" and the token, opponent and target point
+     * @throws IllegalStateException if the game cannot be replayed
+     */
+    static Entry replay(String line) {
+        int bar = line.indexOf('|');
+        String[] moves = line.substring(0, bar).trim().split(" ");
+        String[] asked = line.substring(bar + 1).trim().split(" ");
+        GameManager manager = new GameManager();
+        Position[] points = BoardMoves.points(manager.getBoard());
+        for (String move : moves) {
+            BoardMoves.play(manager, points, move);
+        }
+        int target = Integer.parseInt(asked[2]);
+        return new Entry(manager, points[Integer.parseInt(asked[0])], points[Integer.parseInt(asked[1])],
+                points[target], target);
+    }
+
+    /**
+     * A position and the points the benchmarks ask about in it
+     */
+    static final class Entry {
+
+        final GameManager manager;
+        // a token of the side to move, selected for a movement
+        final Position token;
+        // a token of the opponent
+        final Position opponent;
+        // an empty point to place on, or next to the token in the movement phase
+        final Position target;
+        // position index of the target, 1..24
+        final int targetIndex;
+
+        Entry(GameManager manager, Position token, Position opponent, Position target, int targetIndex) {
+            this.manager = manager;
+            this.token = token;
+            this.opponent = opponent;
+            this.target = target;
+            this.targetIndex = targetIndex;
+            if (manager.getGamePhase() == GamePhase.MOVEMENT) {
+                manager.setSelectedTokenPosition(token);
+            }
+        }
+    }
+}
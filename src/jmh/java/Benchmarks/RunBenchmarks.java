@@ -0,0 +1,28 @@
+package jmh.java.Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class runs all the benchmarks of this package with the gc profiler, which adds the allocation rate
+ * (gc.alloc.rate.norm, bytes per operation) to the time per operation.
+ * <p>
+ * Usage: RunBenchmarks [regular expression of the benchmarks to run, default all]
+ */
+
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : RunBenchmarks.class.getPackage().getName() + ".*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
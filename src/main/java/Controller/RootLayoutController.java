@@ -1,9 +1,23 @@
 package main.java.Controller;
 
+import main.java.Engine.Bitboards;
+import main.java.Engine.EndgameDatabase;
+import main.java.Engine.GameState;
+import main.java.Engine.MonteCarloSearch;
+import main.java.Engine.Move;
+import main.java.Engine.OpeningBook;
+import main.java.Engine.ParallelSearch;
+import main.java.Engine.SearchEngine;
+import main.java.Engine.SearchLimits;
+import main.java.Others.Autosaver;
 import main.java.Others.Board;
+import main.java.Others.GameJournal;
 import main.java.Others.GameManager;
+import main.java.Others.GameRecord;
+import main.java.Others.GameReplay;
 import main.java.Main;
 import main.java.Others.Position;
+import main.java.Player.AIPlayer;
 import main.java.Utils.Colour;
 import main.java.Utils.GameMode;
 import main.java.Utils.GamePhase;
@@ -21,12 +35,14 @@ import javafx.scene.input.Dragboard;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.TransferMode;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -51,6 +67,36 @@ public class RootLayoutController {
 
     private GameMode rootGameMode;
 
+    private int aiTokenCount = 1;   // used for id generation of the AI tokens
+
+    // searches the AI moves, on as many threads as set with -Dai.threads=<n>, all cores by default.
+    // Shared by all the game scenes, created for the first game against the computer, see getAiPlayer()
+    private static AIPlayer aiPlayer;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RootLayoutController::shutdownAiPlayer));
+    }
+
+    // time the AI thinks per move in milliseconds, can be set with -Dai.movetime=<ms>
+    private static final SearchLimits AI_LIMITS = SearchLimits.time(Long.getLong("ai.movetime", 1000L));
+
+    // saves the game after every move, to the file set with -Dgame.autosave=<file>, autosave.nmm by default
+    private static final Autosaver AUTOSAVER = createAutosaver();
+
+    // journals every move to the file set with -Dgame.journal=<file>, null if it is not set
+    private static final GameJournal JOURNAL = openJournal();
+
+    private ImageView[] boardTiles = new ImageView[25];     // board image views indexed by position index 1..24
+
+    // token images, shared by all the tiles showing them
+    private final Image blackTileImage = new Image("/black_tile.png");
+    private final Image whiteTileImage = new Image("/white_tile.png");
+    private final Image blackRemovableTileImage = new Image("/black_tile_removable.png");
+    private final Image whiteRemovableTileImage = new Image("/white_tile_removable.png");
+
+    private GameReplay replay;      // game replayed on the board, null while playing
+    private boolean replaySliderListening;  // the slider listener is added once, initialize() runs for every new game
+
     private ObservableList<ImageView> boardGridChildren = FXCollections.observableArrayList();
 
     private ObservableList<ImageView> rightPocketGridChildren = FXCollections.observableArrayList();
@@ -65,18 +111,110 @@ public class RootLayoutController {
     private Label playerTurnLabel;      // label to display current player turn
     @FXML
     private MenuItem musicLabel;
+    @FXML
+    private HBox replayBar;         // scrubber shown while replaying a game
+    @FXML
+    private Slider replaySlider;
     private main.java.Controller.SceneController sceneController;    //to handle exit to main menu from game scene
 
     /**
-     * Returns the Others.Position of the image view in the corresponding GridPane.
+     * Returns the shared Others.Position of the image view in the corresponding GridPane.
      *
      * @param iv image view to be checked
-     * @return Others.Position of the image view
+     * @return Others.Position of the image view, null if the image view is not on a board point
      */
     private Position getTilePosition(ImageView iv) {
         Integer column = GridPane.getColumnIndex(iv);
         Integer row = GridPane.getRowIndex(iv);
-        return new Position(column == null ? 0 : column, row == null ? 0 : row);
+        return Position.of(column == null ? 0 : column, row == null ? 0 : row);
+    }
+
+    /**
+     * Getter to get the AI player, created on the first call after it was shut down or never created
+     */
+    private static synchronized AIPlayer getAiPlayer() {
+        if (aiPlayer == null) {
+            aiPlayer = createAiPlayer();
+        }
+        return aiPlayer;
+    }
+
+    /**
+     * Stops the search threads of the AI player and drops it with its tables, opening book and endgame databases.
+     * Called when leaving the game scene and when the application exits.
+     */
+    private static synchronized void shutdownAiPlayer() {
+        if (aiPlayer != null) {
+            aiPlayer.getEngine().shutdown();
+            aiPlayer = null;
+        }
+    }
+
+    /**
+     * Creates the AI player. The opening book set with -Dai.book=&lt;file&gt; is used when it can be read.
+     */
+    private static AIPlayer createAiPlayer() {
+        AIPlayer player = new AIPlayer("Computer", Colour.WHITE, createSearch());
+        String book = System.getProperty("ai.book");
+        if (book != null) {
+            try {
+                player.setOpeningBook(OpeningBook.open(Paths.get(book)));
+            } catch (IOException e) {
+                System.out.println("Could not open the opening book " + book + ": " + e.getMessage());
+            }
+        }
+        return player;
+    }
+
+    /**
+     * Creates the search of the AI player, a Monte Carlo tree search with -Dai.engine=mcts and an alpha-beta
+     * search otherwise. The endgame databases in the directory set with -Dai.endgame=&lt;directory&gt; are used
+     * by the alpha-beta search when they can be read.
+     */
+    private static SearchEngine createSearch() {
+        int threads = Integer.getInteger("ai.threads", Runtime.getRuntime().availableProcessors());
+        if ("mcts".equalsIgnoreCase(System.getProperty("ai.engine"))) {
+            return new MonteCarloSearch(threads, System.nanoTime());
+        }
+        ParallelSearch search = new ParallelSearch(threads);
+        String endgames = System.getProperty("ai.endgame");
+        if (endgames != null) {
+            try {
+                search.setEndgameDatabase(EndgameDatabase.open(Paths.get(endgames)));
+            } catch (IOException e) {
+                System.out.println("Could not open the endgame databases in " + endgames + ": " + e.getMessage());
+            }
+        }
+        return search;
+    }
+
+    /**
+     * Creates the autosaver, the save still waiting is written when the application exits.
+     */
+    private static Autosaver createAutosaver() {
+        Autosaver autosaver = new Autosaver(Paths.get(System.getProperty("game.autosave", "autosave.nmm")));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> autosaver.close(1000)));
+        return autosaver;
+    }
+
+    /**
+     * Opens the journal set with -Dgame.journal=&lt;file&gt;, its last game is restored into the first game shown.
+     * The journal is synced every -Dgame.journal.sync=&lt;ms&gt; milliseconds, 200 by default, and when the
+     * application exits.
+     */
+    private static GameJournal openJournal() {
+        String file = System.getProperty("game.journal");
+        if (file == null) {
+            return null;
+        }
+        try {
+            GameJournal journal = GameJournal.open(Paths.get(file), Long.getLong("game.journal.sync", 200L));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> journal.close(1000)));
+            return journal;
+        } catch (IOException e) {
+            System.out.println("Could not open the journal " + file + ": " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -111,7 +249,7 @@ public class RootLayoutController {
 
             iv.setOnDragDetected(event -> { // MouseEvent
 
-                if (iv.getImage() == null) {
+                if (iv.getImage() == null || replay != null) {
                     return;
                 }
                 if (gameManager.getGamePhase() != GamePhase.PLACEMENT && !grid.getId().equals(gameBoardGrid.getId())) {
@@ -129,7 +267,7 @@ public class RootLayoutController {
                 if (gameManager.isMill()) {
                     System.out.println("THERE IS A MILL");
                     //update label
-                    playerTurnLabel.setText("Mill formed, " + gameManager.isOtherTurn().toString() + " can remove opponent token");
+                    playerTurnLabel.setText("Mill formed, " + gameManager.colorOnTurn().toString() + " can remove opponent token");
                     return;
                 }
 
@@ -196,7 +334,8 @@ public class RootLayoutController {
                         if (gameManager.validateTokenPlacement(placePosition)) {
                             iv.setImage(db.getImage());
                             iv.setId(db.getString());
-                            board.setTokenPlacedPosition(placePosition);
+                            applyTokenPlacement(placePosition);
+                            AUTOSAVER.save(gameManager);
 
                             afterTokenPlacementBoardUpdates(placePosition);
 
@@ -209,7 +348,7 @@ public class RootLayoutController {
                 }
                 event.consume();
                 if (!gameManager.isMill()) {
-                    gameManager.setPlayer2TurnProperty(gameManager.getPlayer2().isTurn()); //AI auto place
+                    scheduleAiTurn(); //AI auto place
                 }
             });
         }
@@ -224,19 +363,19 @@ public class RootLayoutController {
         AtomicBoolean flag = new AtomicBoolean(false);
         for (ImageView iv : boardGridChildren) {
             iv.addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
-                if (gameManager.isMill()) {
+                if (gameManager.isMill() && replay == null) {
                     if (iv.getImage() != null && iv.getId() != null) {
-                        System.out.println(gameManager.colorOnTurn());
-                        if (iv.getId().contains("blk") && gameManager.colorOnTurn() == Colour.BLACK ||
-                                iv.getId().contains("wht") && gameManager.colorOnTurn() == Colour.WHITE) {
+                        System.out.println(gameManager.isOtherTurn());
+                        if (iv.getId().contains("blk") && gameManager.isOtherTurn() == Colour.BLACK ||
+                                iv.getId().contains("wht") && gameManager.isOtherTurn() == Colour.WHITE) {
                             Position position = getTilePosition(iv);
 
                             if (gameManager.removeToken(position)) {//if token can be removed
+                                AUTOSAVER.save(gameManager);
 
                                 iv.setImage(null);
                                 iv.setId(null);
 
-                                gameManager.setMill(false);
                                 playerTurnLabel.setText(gameManager.colorOnTurn() + "'s turn");
                                 flag.set(true);
                                 resetImagesOnRemovableTiles();
@@ -257,9 +396,7 @@ public class RootLayoutController {
                 event.consume();
 
                 if (flag.get()) {
-                    //Set to false, then true to trigger auto event
-                    gameManager.setPlayer2TurnProperty(false);
-                    gameManager.setPlayer2TurnProperty(gameManager.getPlayer2().isTurn());
+                    scheduleAiTurn();
                     flag.set(false);
                 }
             });
@@ -277,9 +414,9 @@ public class RootLayoutController {
         for (ImageView iv : boardGridChildren) {
             if (iv.getId() != null) {
                 if (gameManager.colorOnTurn() == Colour.BLACK && iv.getId().contains("blk")) {
-                    iv.setImage(new Image("/black_tile.png"));
+                    iv.setImage(blackTileImage);
                 } else if (gameManager.colorOnTurn() == Colour.WHITE && iv.getId().contains("wht")) {
-                    iv.setImage(new Image("/white_tile.png"));
+                    iv.setImage(whiteTileImage);
                 }
             }
         }
@@ -296,18 +433,18 @@ public class RootLayoutController {
                 if (gameManager.isMill()) {
                     System.out.println("putImagesOnRemovableTiles");
                     if (iv.getImage() != null && iv.getId() != null) {
-                        System.out.println(gameManager.colorOnTurn());
-                        if (iv.getId().contains("blk") && gameManager.colorOnTurn() == Colour.BLACK ||
-                                iv.getId().contains("wht") && gameManager.colorOnTurn() == Colour.WHITE) {
+                        System.out.println(gameManager.isOtherTurn());
+                        if (iv.getId().contains("blk") && gameManager.isOtherTurn() == Colour.BLACK ||
+                                iv.getId().contains("wht") && gameManager.isOtherTurn() == Colour.WHITE) {
                             Position position = getTilePosition(iv);
 
-                            if (position != null && board.canBeRemoved(position, false)) {//if token can be removed
+                            if (position != null && board.canBeRemoved(position)) {//if token can be removed
                                 System.out.println("removing token image");
 //                                iv.setImage(null);
                                 if (iv.getId().contains("blk") && this.rootGameMode == GameMode.HUMAN) {
-                                    iv.setImage(new Image("/black_tile_removable.png"));
+                                    iv.setImage(blackRemovableTileImage);
                                 } else if (iv.getId().contains("wht")) {
-                                    iv.setImage(new Image("/white_tile_removable.png"));
+                                    iv.setImage(whiteRemovableTileImage);
                                 }
 
                             } else {
@@ -324,42 +461,46 @@ public class RootLayoutController {
 
 
     /**
-     * Initializes the listeners for the properties of the game manager.
+     * Applies the token dropped on the board to the game manager, placing a new token in the PLACEMENT phase
+     * or moving the selected token in the MOVEMENT phase.
+     *
+     * @param position the position the token was dropped on
      */
-    private void initGameManagerPropertyListeners() {
+    private void applyTokenPlacement(Position position) {
+        if (gameManager.getGamePhase() == GamePhase.PLACEMENT) {
+            gameManager.placeToken(position);
+        } else if (gameManager.getGamePhase() == GamePhase.MOVEMENT) {
+            gameManager.moveToken(position);
+        }
+    }
 
-        final int[] count = {1};
-        board.tokenPlacedPositionProperty().addListener((observableValue, oldPosition, newPosition) -> {
-            System.out.println("attempt to form mill");
-            putImagesOnRemovableTiles();
-            if (newPosition != null && gameManager.getGamePhase() == GamePhase.PLACEMENT) {
-                gameManager.placeToken(newPosition);
-            } else if (gameManager.getGamePhase() == GamePhase.MOVEMENT) {
-                gameManager.moveToken(newPosition);
-            }
-        });
-        gameManager.player2TurnProperty().addListener((observableValue, oldValue, newValue) -> {
-            if (newValue && this.rootGameMode == GameMode.COMPUTER) {   //play against AI mode
-                Task<Void> aiTask = new Task<Void>() {  //introduce a delay to make the AI move more realistic
-                    @Override
-                    protected Void call() throws Exception {
-                        TimeUnit.MILLISECONDS.sleep(500 + new Random().nextInt(800));
-                        Platform.runLater(() -> {
-                            if (gameManager.getGamePhase() == GamePhase.PLACEMENT && !gameManager.isMill()) {
-                                aiBasicPlacement2(count[0]);
-                                count[0]++;
-                                gameManager.setPlayer2TurnProperty(false);
-                            } else if (gameManager.getGamePhase() == GamePhase.MOVEMENT && !gameManager.isMill()) {
-                                aiMoveToken2();
-                                gameManager.setPlayer2TurnProperty(false);
-                            }
-                        });
-                        return null;
+    /**
+     * Lets the AI play its turn when playing against the computer and it is player 2's turn.
+     */
+    private void scheduleAiTurn() {
+        if (this.rootGameMode != GameMode.COMPUTER || !gameManager.getPlayer2().isTurn()) {
+            return;
+        }
+        GameState position = new GameState(gameManager.getState());    //the search runs on a copy, off the FX thread
+        AIPlayer player = getAiPlayer();
+        Task<Void> aiTask = new Task<Void>() {  //the AI thinks for its time budget, which is the delay the player sees
+            @Override
+            protected Void call() throws Exception {
+                int move;
+                synchronized (player) {
+                    move = player.chooseMove(position, AI_LIMITS);
+                }
+                Platform.runLater(() -> {
+                    //the turn may have been taken back while thinking
+                    if (move != Move.NONE && replay == null && gameManager.getPositionHash() == position.getHash()
+                            && gameManager.getPlayer2().isTurn() && !gameManager.isMill()) {
+                        playAiMove(move);
                     }
-                };
-                new Thread(aiTask).start();
+                });
+                return null;
             }
-        });
+        };
+        new Thread(aiTask).start();
     }
 
     /**
@@ -370,10 +511,12 @@ public class RootLayoutController {
     private void initialize() {
         gameManager = new GameManager();
         board = gameManager.getBoard();
+        aiTokenCount = 1;
         boardGridChildren = FXCollections.observableArrayList();    //reinitialize the list for new game
         rightPocketGridChildren = FXCollections.observableArrayList();
         for (Node i : gameBoardGrid.getChildren()) {
             boardGridChildren.add((ImageView) i);
+            boardTiles[getTilePosition((ImageView) i).getIndex()] = (ImageView) i;
         }
 
         for (Node j : rightPocketGrid.getChildren()) {
@@ -385,8 +528,6 @@ public class RootLayoutController {
             ((ImageView) k).setImage(new Image("file:res/white_tile.png"));
         }
 
-        initGameManagerPropertyListeners();
-
         initTokenDrag(leftPocketGrid); //id of grid pane in fxml file
 
 //        initTokenDrag(rightPocketGrid);
@@ -394,6 +535,21 @@ public class RootLayoutController {
         initTokenDrop(gameBoardGrid);
         removeTileMill();
 
+        hideReplay();
+        if (!replaySliderListening) {
+            replaySliderListening = true;
+            replaySlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+                if (replay != null) {
+                    seekReplay((int) Math.round(newValue.doubleValue()));
+                }
+            });
+        }
+
+        //after a crash the last game is rebuilt from the journal
+        if (JOURNAL != null && JOURNAL.attach(gameManager)) {
+            refreshBoard();
+        }
+
 
     }
 
@@ -447,16 +603,20 @@ public class RootLayoutController {
 //                board.setNewGame(true);
             } else {
                 //exit to main menu
+                shutdownAiPlayer();
                 sceneController = new SceneController();
                 sceneController.switchToMainMenuScene(this.stage);
             }
 
         } else if (id == 1) {   //handle quit game
             if (alert.getResult() == btnYes) {
+                AUTOSAVER.close(1000);
+                shutdownAiPlayer();
                 Platform.exit();
             }
         } else if (id == 2) { //handle exit to main menu
             if (alert.getResult() == btnYes) {
+                shutdownAiPlayer();
                 sceneController = new SceneController();
                 sceneController.switchToMainMenuScene(this.stage);
             }
@@ -500,6 +660,253 @@ public class RootLayoutController {
         gameDialog("Exit to Main Menu", "Are you sure you want to quit?", "All progress will be lost.", 2);
     }
 
+    /**
+     * Handles the action of the save game button. The game is encoded on the FX thread and written to the chosen
+     * file in the background.
+     */
+    public void handleSave() {
+        FileChooser chooser = createFileChooser("Save Game");
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        byte[] data = GameRecord.encode(gameManager);
+        Task<Void> saveTask = new Task<Void>() {
+            @Override
+            protected Void call() {
+                String message;
+                try {
+                    GameRecord.write(file.toPath(), data);
+                    message = "Game saved";
+                } catch (IOException e) {
+                    System.out.println("Could not save the game to " + file + ": " + e.getMessage());
+                    message = "Game could not be saved";
+                }
+                String text = message;
+                Platform.runLater(() -> playerTurnLabel.setText(text));
+                return null;
+            }
+        };
+        new Thread(saveTask).start();
+    }
+
+    /**
+     * Handles the action of the load game button. The chosen file, e.g. the autosave, is read and checked in the
+     * background and the game is restored on the FX thread.
+     */
+    public void handleLoad() {
+        FileChooser chooser = createFileChooser("Load Game");
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        Task<Void> loadTask = new Task<Void>() {
+            @Override
+            protected Void call() {
+                try {
+                    GameRecord record = GameRecord.read(file.toPath());
+                    Platform.runLater(() -> {
+                        gameManager.restore(record);
+                        hideReplay();
+                        refreshBoard();
+                        gameWinCheck();
+                        scheduleAiTurn();
+                    });
+                } catch (IOException e) {
+                    System.out.println("Could not load the game from " + file + ": " + e.getMessage());
+                    Platform.runLater(() -> playerTurnLabel.setText("Game could not be loaded"));
+                }
+                return null;
+            }
+        };
+        new Thread(loadTask).start();
+    }
+
+    /**
+     * Handles the action of the replay game button. The chosen saved game is read and its snapshots are taken in
+     * the background, then the board shows the game from its start with a scrubber to jump to any ply.
+     * The game in progress is kept and comes back when the replay is closed.
+     */
+    public void handleReplay() {
+        FileChooser chooser = createFileChooser("Replay Game");
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        Task<Void> replayTask = new Task<Void>() {
+            @Override
+            protected Void call() {
+                try {
+                    GameReplay loaded = new GameReplay(GameRecord.read(file.toPath()));
+                    Platform.runLater(() -> showReplay(loaded));
+                } catch (IOException e) {
+                    System.out.println("Could not replay the game from " + file + ": " + e.getMessage());
+                    Platform.runLater(() -> playerTurnLabel.setText("Game could not be replayed"));
+                }
+                return null;
+            }
+        };
+        new Thread(replayTask).start();
+    }
+
+    /**
+     * Handles the action of the close replay button, the board shows the game in progress again.
+     */
+    public void handleCloseReplay() {
+        hideReplay();
+        refreshBoard();
+        scheduleAiTurn();
+    }
+
+    /**
+     * Shows a replayed game at its start on the whole board.
+     */
+    private void showReplay(GameReplay loaded) {
+        replay = null;      //no seek while the slider is set up
+        replaySlider.setMin(0);
+        replaySlider.setMax(loaded.size());
+        replaySlider.setValue(0);
+        replay = loaded;
+        replay.seek(0);
+        replayBar.setVisible(true);
+        replayBar.setManaged(true);
+        showTiles(replay.getState(), Bitboards.FULL);
+        showPockets(replay.getState());
+        showReplayLabel();
+    }
+
+    /**
+     * Jumps the replay to the ply, only the tiles whose token changed are redrawn.
+     */
+    private void seekReplay(int ply) {
+        if (ply == replay.getPly()) {
+            return;
+        }
+        GameState state = replay.getState();
+        int blackInHand = state.getPiecesInHand(GameState.BLACK);
+        int whiteInHand = state.getPiecesInHand(GameState.WHITE);
+        showTiles(state, replay.seek(ply));
+        if (state.getPiecesInHand(GameState.BLACK) != blackInHand
+                || state.getPiecesInHand(GameState.WHITE) != whiteInHand) {
+            showPockets(state);
+        }
+        showReplayLabel();
+    }
+
+    private void showReplayLabel() {
+        int ply = replay.getPly();
+        playerTurnLabel.setText("Replay " + ply + "/" + replay.size()
+                + (ply > 0 ? ", last move " + Move.toString(replay.getMove(ply - 1)) : ""));
+    }
+
+    private void hideReplay() {
+        replay = null;
+        replayBar.setVisible(false);
+        replayBar.setManaged(false);
+    }
+
+    /**
+     * File chooser for saved games, opening in the directory of the autosave.
+     */
+    private FileChooser createFileChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Saved games", "*.nmm"));
+        Path directory = AUTOSAVER.getFile().toAbsolutePath().getParent();
+        if (directory != null && directory.toFile().isDirectory()) {
+            chooser.setInitialDirectory(directory.toFile());
+        }
+        return chooser;
+    }
+
+    /**
+     * Handles the action of the undo button. Against the computer the AI moves are taken back too,
+     * so it is the human player's turn again.
+     */
+    public void handleUndo() {
+        if (replay != null || !gameManager.undo()) {
+            return;
+        }
+        while (this.rootGameMode == GameMode.COMPUTER && gameManager.getPlayer2().isTurn() && gameManager.undo()) {
+            // keep taking back until it is player 1's turn
+        }
+        AUTOSAVER.save(gameManager);
+        refreshBoard();
+    }
+
+    /**
+     * Handles the action of the redo button. Against the computer the AI moves are redone too.
+     */
+    public void handleRedo() {
+        if (replay != null || !gameManager.redo()) {
+            return;
+        }
+        while (this.rootGameMode == GameMode.COMPUTER && gameManager.getPlayer2().isTurn() && gameManager.redo()) {
+            // keep redoing until it is player 1's turn
+        }
+        AUTOSAVER.save(gameManager);
+        refreshBoard();
+        scheduleAiTurn();
+    }
+
+    /**
+     * Redraws the board, the pockets and the label from the game state, e.g. after an undo or redo.
+     */
+    private void refreshBoard() {
+        GameState state = gameManager.getState();
+        showTiles(state, Bitboards.FULL);
+        showPockets(state);
+
+        playerTurnLabel.setText(gameManager.colorOnTurn() + "'s turn");
+        if (gameManager.isMill()) {
+            putImagesOnRemovableTiles();
+            playerTurnLabel.setText("Mill formed, " + gameManager.colorOnTurn() + " can remove opponent token");
+        }
+    }
+
+    /**
+     * Shows the tokens of the state on the tiles of the positions in the mask.
+     *
+     * @param state the state to show
+     * @param mask  the positions to redraw, see {@code Engine.Bitboards}
+     */
+    private void showTiles(GameState state, int mask) {
+        while (mask != 0) {
+            int index = Bitboards.lowestIndex(mask);
+            mask &= mask - 1;
+            ImageView iv = boardTiles[index];
+            int side = state.sideAt(index);
+            if (side == GameState.BLACK) {
+                iv.setImage(blackTileImage);
+                iv.setId("blk" + index);
+            } else if (side == GameState.WHITE) {
+                iv.setImage(whiteTileImage);
+                iv.setId("wht" + index);
+            } else {
+                iv.setImage(null);
+                iv.setId(null);
+            }
+        }
+    }
+
+    private void showPockets(GameState state) {
+        refreshPocket(leftPocketGrid, state.getPiecesInHand(GameState.BLACK), blackTileImage);
+        refreshPocket(rightPocketGrid, state.getPiecesInHand(GameState.WHITE), whiteTileImage);
+    }
+
+    /**
+     * Shows as many tokens in the pocket as the player has left to place.
+     *
+     * @param pocket the pocket grid of the player
+     * @param inHand the number of tokens left to place
+     * @param image  the image of the player's tokens
+     */
+    private void refreshPocket(GridPane pocket, int inHand, Image image) {
+        int shown = 0;
+        for (Node node : pocket.getChildren()) {
+            ((ImageView) node).setImage(shown++ < inHand ? image : null);
+        }
+    }
 
     /**
      * Handles the action of the music button. To mute or unmute the music in the game scene.
@@ -555,156 +962,45 @@ public class RootLayoutController {
 //    }
 
     /**
-     * Handles AI token removal on board
+     * Applies an AI move to the game manager and shows it on the board.
+     * A move that closes a mill already carries the token it removes.
      *
+     * @param move packed move, see {@code Engine.Move}
      */
-    private void aiRemoveToken() {
-        for (ImageView iv : boardGridChildren) {
-            if (iv.getId() != null) {
-                if (iv.getId().contains("blk") && gameManager.colorOnTurn() == Colour.BLACK) {
-                    Position position = getTilePosition(iv);
-                    if (gameManager.removeToken(position)) {//if token can be removed
-                        iv.setImage(null);
-                        iv.setId(null);
-                        gameManager.setMill(false);
-                        playerTurnLabel.setText(gameManager.colorOnTurn() + "'s turn");
-                        gameWinCheck();
-                        break;
-                    }
+    private void playAiMove(int move) {
+        ImageView to = boardTiles[Move.to(move)];
+        if (Move.isPlacement(move)) {
+            to.setImage(whiteTileImage);
+            to.setId("wht" + Integer.toString(aiTokenCount));
+            aiTokenCount++;
+
+            //remove token from rightpocketgrid after it is placed
+            for (ImageView iv2 : rightPocketGridChildren) {
+                if (iv2.getImage() != null) {
+                    iv2.setImage(null);
+                    break;
                 }
             }
+        } else {
+            //transfer token
+            ImageView from = boardTiles[Move.from(move)];
+            to.setId(from.getId());
+            to.setImage(from.getImage());
+            from.setId(null);
+            from.setImage(null);
         }
-    }
-//
-//    private void aiMoveToken() {
-//        for (ImageView iv : boardGridChildren) {
-//            System.out.println(iv);
-//            if (iv.getId() != null) {
-//                if (iv.getId().contains("wht") && gameManager.colorOnTurn() == Colour.WHITE) {
-//                    Others.Position currentPosition = getTilePosition(iv);
-//                    List<Others.Position> possiblePositions = board.getValidPositions(currentPosition);
-//                    for (Others.Position p : possiblePositions) {
-//                        for (ImageView newIv : boardGridChildren) {
-//                            if (newIv.getId() == null) {
-//                                Others.Position newPosition = getTilePosition(newIv);
-//                                if (newPosition.equals(p)) {
-//
-//                                    newIv.setId(iv.getId());
-//                                    newIv.setImage(iv.getImage());
-//
-//                                    iv.setId(null);
-//                                    iv.setImage(null);
-//
-//                                    board.setOldPosition(currentPosition);
-//                                    board.setTokenPlacedPosition(newPosition);
-//
-//                                    afterTokenPlacementBoardUpdates(newPosition);
-//
-//                                    if (gameManager.isMill()) {
-//                                        aiRemoveToken();
-//                                    }
-//
-//                                    return;
-//                                }
-//                            }
-//                        }
-//                    }
-//                }
-//            }
-//        }
-//    }
-
-    /**
-     * Handles AI token placement to board using random
-     * @param count used for id generation of the image view
-     */
-    private void aiBasicPlacement2(int count) {
-        Random random = new Random();
-
-        while (true) {
-            int num = random.nextInt(24);
-            ImageView iv = boardGridChildren.get(num);
-
-            Position position = getTilePosition(iv);
-            if (iv.getId() == null) {
-                iv.setImage(new Image("/white_tile.png"));
-                iv.setId("wht" + Integer.toString(count));
-                board.setTokenPlacedPosition(position);
-
-                //remove token from rightpocketgrid after it is placed
-                for (ImageView iv2 : rightPocketGridChildren) {
-                    if (iv2.getImage() != null) {
-                        iv2.getImage();
-                        if (iv2.getId().contains("wht")) {
-                            iv2.setImage(null);
-//                            iv2.setId(null);
-
-                            break;
-                        }
-                    }
-                }
-                afterTokenPlacementBoardUpdates(position);
-
-                if (gameManager.isMill()) {
-                    aiRemoveToken();
-                }
-
-                return;
-            }
-        }
-    }
 
-    /**
-     * Handles AI token movement on board using random
-     *
-     */
-    private void aiMoveToken2() {
-        Random random = new Random();
-
-        while (true) {
-            int num = random.nextInt(24);
-            ImageView iv = boardGridChildren.get(num);
-            if (iv.getId() != null) {
-                if (iv.getId().contains("wht") && gameManager.colorOnTurn() == Colour.WHITE) {
-                    Position currentPosition = getTilePosition(iv);
-
-                    //possible movement from current position
-                    List<Position> possiblePositions = board.getValidPositions(currentPosition);
-                    for (Position p : possiblePositions) {
-                        for (ImageView newIv : boardGridChildren) {
-                            if (newIv.getId() == null) { //find positions that are empty
-                                Position newPosition = getTilePosition(newIv);
-
-                                if (gameManager.getPlayer2().getTotalPiecesOnBoard() == 3) {
-                                    p = newPosition;
-                                }
-                                if (newPosition.equals(p)) { //if possible position = empty
+        //update backend
+        gameManager.apply(move);
+        AUTOSAVER.save(gameManager);
 
-                                    //transfer token
-                                    newIv.setId(iv.getId());
-                                    newIv.setImage(iv.getImage());
-
-                                    iv.setId(null);
-                                    iv.setImage(null);
-
-                                    //update backend
-                                    board.setOldPosition(currentPosition);
-                                    board.setTokenPlacedPosition(newPosition);
-
-                                    afterTokenPlacementBoardUpdates(newPosition);
-
-                                    if (gameManager.isMill()) {
-                                        aiRemoveToken();
-                                    }
-
-                                    return;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        if (Move.removal(move) != 0) {
+            ImageView removed = boardTiles[Move.removal(move)];
+            removed.setImage(null);
+            removed.setId(null);
         }
+        afterTokenPlacementBoardUpdates(Position.of(Move.to(move)));
+        gameWinCheck();
     }
 
     /**
@@ -712,16 +1008,13 @@ public class RootLayoutController {
      * @param position new position where the token is at
      */
     public void afterTokenPlacementBoardUpdates(Position position) {
-        gameManager.changePlayerTurn();
         System.out.println(gameManager.colorOnTurn() + " turn");
         playerTurnLabel.setText(gameManager.colorOnTurn() + "'s turn");
 
-        gameManager.updateMillStatus(position);
-
         if (gameManager.isMill()) { //MILL FORMED
             //update label
             putImagesOnRemovableTiles();
-            playerTurnLabel.setText("Mill formed, " + gameManager.isOtherTurn() + " can remove opponent token");
+            playerTurnLabel.setText("Mill formed, " + gameManager.colorOnTurn() + " can remove opponent token");
         }
     }
 
@@ -733,7 +1026,6 @@ public class RootLayoutController {
 
         if (gameManager.checkWin() > 0) {
             System.out.println("WIN");
-            gameManager.setGamePhase(GamePhase.GAMEOVER);
 
             if (gameManager.checkWin() == 1) {
                 System.out.println("Player 1 WIN");
@@ -763,6 +1055,7 @@ public class RootLayoutController {
             initTokenDrag(rightPocketGrid); //init drag and drop for player 2 if it is not AI
         } else{
             this.rootGameMode = GameMode.COMPUTER;
+            scheduleAiTurn();   //a game rebuilt from the journal may be on the AI's turn
         }
     }
 
@@ -0,0 +1,505 @@
+package main.java.Engine;
+
+import main.java.Utils.ReplacementPolicy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class is a negamax search with alpha-beta pruning and a {@link TranspositionTable}.
+ * <p>
+ * The search walks the game tree on its own copy of the state with makeMove/unmakeMove. A move closing a mill
+ * carries the token it removes (see {@link MoveGenerator}), so the choice of the removal is searched like any
+ * other move. Wins are scored {@link #WIN} minus the distance in plies, so a faster win is preferred, and a
+ * position repeating one on the current line is scored as a draw.
+ * <p>
+ * The search deepens iteratively, one ply at a time, until the limits are reached. The clock and the node
+ * budget are checked every {@value #CHECK_INTERVAL} nodes, so the search stops within a few milliseconds of
+ * the deadline, and the best move of the deepest finished iteration is returned. The best move of the previous
+ * iteration is searched first, so there is always a move to play, even when the budget runs out in depth 1.
+ * <p>
+ * Moves are tried in the order: the move of the transposition table, moves closing a mill, moves blocking an
+ * open two of the opponent, the two killer moves of the ply and then by the history of quiet moves which
+ * caused a cutoff. The killer and history tables are primitive arrays owned by the search, so every thread
+ * has its own. Each heuristic can be switched off with {@link #setOrdering(int)} to measure what it saves.
+ * <p>
+ * With an {@link EndgameDatabase} set, positions held by the database are scored exactly from it, counting the
+ * plies to the end of the game, and a root position held by the database is decided with a search of one ply.
+ * <p>
+ * An instance is not thread safe, every thread needs its own search. The table can be shared.
+ */
+
+public class AlphaBetaSearch implements SearchEngine {
+
+    /**
+     * Score of a won position at the root
+     */
+    public static final int WIN = 30000;
+
+    /**
+     * Deepest ply the search reaches
+     */
+    public static final int MAX_PLY = 128;
+
+    /**
+     * Move ordering heuristics for {@link #setOrdering(int)}
+     */
+    public static final int ORDER_TABLE = 1;
+    public static final int ORDER_MILLS = 2;
+    public static final int ORDER_BLOCKS = 4;
+    public static final int ORDER_KILLERS = 8;
+    public static final int ORDER_HISTORY = 16;
+    public static final int ORDER_ALL = ORDER_TABLE | ORDER_MILLS | ORDER_BLOCKS | ORDER_KILLERS | ORDER_HISTORY;
+
+    private static final int INFINITY = WIN + 1;
+
+    // ordering scores, each class of moves is sorted before the next one
+    private static final int SCORE_TABLE = 1 << 30;
+    private static final int SCORE_MILL = 1 << 29;
+    private static final int SCORE_BLOCK = 1 << 28;
+    private static final int SCORE_KILLER = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;
+
+    // scores beyond this are wins or losses, found by the search or read from the endgame database
+    private static final int WIN_BOUND = WIN - 1024;
+
+    // nodes between two checks of the clock, a power of two
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final TranspositionTable table;
+
+    private final GameState state = new GameState();
+
+    // move buffers for every ply, nothing is allocated while searching
+    private final int[][] moves = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] scores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+
+    // two quiet moves per ply which caused a cutoff
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // cutoff counts of the quiet moves per side, indexed by the from and to bits of the move
+    private final int[][] history = new int[2][1 << 10];
+
+    private EndgameDatabase endgames;
+
+    // evaluation weights of this search, null for the weights loaded by Evaluation
+    private int[][] weights;
+
+    private int ordering = ORDER_ALL;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    private long nodes;
+    private int bestScore;
+    private int completedDepth;
+
+    private long deadline;
+    private long nodeLimit;
+    private volatile boolean stopped;
+
+    // set by a parallel search to stop all its workers, null for a search on its own
+    private final AtomicBoolean sharedStop;
+
+    /**
+     * Constructor for a search with its own 16 MB transposition table
+     */
+    public AlphaBetaSearch() {
+        this(new TranspositionTable(16, ReplacementPolicy.DEPTH_PREFERRED));
+    }
+
+    /**
+     * Constructor for a search using the given transposition table
+     *
+     * @param table the transposition table, may be shared with other searches
+     */
+    public AlphaBetaSearch(TranspositionTable table) {
+        this(table, null);
+    }
+
+    /**
+     * Constructor for a worker of a {@link ParallelSearch}, which stops when the shared flag is set
+     */
+    AlphaBetaSearch(TranspositionTable table, AtomicBoolean sharedStop) {
+        this.table = table;
+        this.sharedStop = sharedStop;
+    }
+
+    @Override
+    public int chooseMove(GameState position, SearchLimits limits) {
+        table.newSearch();
+        return search(position, limits, 1);
+    }
+
+    /**
+     * Searches the position iteratively deeper, starting at the first depth
+     *
+     * @param position   the game state to choose a move in
+     * @param limits     the limits of the search
+     * @param firstDepth the depth of the first iteration
+     * @return the best move found
+     */
+    int search(GameState position, SearchLimits limits, int firstDepth) {
+        long start = System.nanoTime();
+        state.copyFrom(position);
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        completedDepth = 0;
+        bestScore = 0;
+        stopped = false;
+        deadline = limits.getTimeMillis() > 0 ? start + limits.getTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+
+        int[] list = moves[0];
+        int count = MoveGenerator.generate(state, list);
+        if (count == 0) {
+            return Move.NONE;
+        }
+        int bestMove = list[0];
+        if (count == 1) {
+            return bestMove;
+        }
+        long hash = state.getHash();
+        int maxDepth = limits.getDepth();
+        if (endgames != null && endgames.probe(state) >= 0) {
+            maxDepth = 1;   // the moves are scored exactly from the database
+        }
+
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        ageHistory();
+        int[] rootScores = scores[0];
+        scoreMoves(list, rootScores, count, Move.NONE, 0);
+        for (int i = 0; i < count; i++) {
+            pickNext(list, rootScores, i, count);
+        }
+
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth && !stopped; depth++) {
+            orderTableMove(list, count, bestMove);
+            int alpha = -INFINITY;
+            int iterationMove = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                state.makeMove(list[i]);
+                int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+                state.unmakeMove();
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationMove = list[i];
+                }
+            }
+            if (stopped) {
+                //the previous best move is searched first, a move which beat it in the unfinished iteration is better
+                if (iterationMove != Move.NONE && iterationMove != bestMove) {
+                    bestMove = iterationMove;
+                    bestScore = alpha;
+                }
+                break;
+            }
+            bestMove = iterationMove;
+            bestScore = alpha;
+            completedDepth = depth;
+            table.store(hash, bestMove, alpha, depth, TranspositionTable.EXACT);
+            if (alpha > WIN_BOUND) {
+                break;  // forced win found, searching deeper cannot find a faster one
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Stops a running search from another thread, it returns the best move found so far
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Searches the state to the depth and returns its score for the side to move
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && (nodes >= nodeLimit || System.nanoTime() >= deadline
+                || sharedStop != null && sharedStop.get())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (state.isGameOver()) {
+            return terminalScore(ply);
+        }
+        if (endgames != null) {
+            int value = endgames.probe(state);
+            if (value > EndgameDatabase.DRAW) {
+                return EndgameDatabase.isWin(value) ? WIN - ply - value : -(WIN - ply - value);
+            } else if (value == EndgameDatabase.DRAW) {
+                return 0;
+            }
+        }
+        if (state.isRepetition()) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return weights == null ? Evaluation.evaluate(state) : Evaluation.evaluate(state, weights);
+        }
+
+        long hash = state.getHash();
+        long entry = table.probe(hash);
+        int tableMove = Move.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int[] list = moves[ply];
+        int[] moveScores = scores[ply];
+        int count = MoveGenerator.generate(state, list);
+        scoreMoves(list, moveScores, count, tableMove, ply);
+
+        int alphaStart = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            pickNext(list, moveScores, i, count);
+            int move = list[i];
+            state.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            state.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        recordCutoff(move, i, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > alphaStart ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(hash, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Score of a finished game for the side to move
+     */
+    private int terminalScore(int ply) {
+        int result = state.getResult();
+        if (result == GameState.RESULT_DRAW) {
+            return 0;
+        }
+        return result == state.getSideToMove() ? WIN - ply : -(WIN - ply);
+    }
+
+    /**
+     * Gives every move an ordering score, higher scores are searched first
+     */
+    private void scoreMoves(int[] list, int[] moveScores, int count, int tableMove, int ply) {
+        int side = state.getSideToMove();
+        int blocks = 0;
+        if ((ordering & ORDER_BLOCKS) != 0) {
+            blocks = Bitboards.closingMask(state.getMask(side ^ 1), ~state.getOccupied() & Bitboards.FULL);
+        }
+        int[] plyKillers = killers[ply];
+        int[] sideHistory = history[side];
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            int to = Move.to(move);
+            int score = 0;
+            if (move == tableMove && (ordering & ORDER_TABLE) != 0) {
+                score = SCORE_TABLE;
+            } else if (to != 0) {
+                if ((ordering & ORDER_MILLS) != 0 && Move.removal(move) != 0) {
+                    score += SCORE_MILL;
+                }
+                if ((blocks & Bitboards.bit(to)) != 0) {
+                    score += SCORE_BLOCK;
+                }
+                if ((ordering & ORDER_KILLERS) != 0) {
+                    if (move == plyKillers[0]) {
+                        score += SCORE_KILLER + 1;
+                    } else if (move == plyKillers[1]) {
+                        score += SCORE_KILLER;
+                    }
+                }
+                if ((ordering & ORDER_HISTORY) != 0) {
+                    score += sideHistory[move & 0x3FF];
+                }
+            }
+            moveScores[i] = score;
+        }
+    }
+
+    /**
+     * Swaps the move with the highest score from the rest of the list into the index
+     */
+    private static void pickNext(int[] list, int[] moveScores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (moveScores[i] > moveScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = list[index];
+            list[index] = list[best];
+            list[best] = move;
+            int score = moveScores[index];
+            moveScores[index] = moveScores[best];
+            moveScores[best] = score;
+        }
+    }
+
+    /**
+     * Updates the killer and history tables after a move caused a cutoff
+     */
+    private void recordCutoff(int move, int index, int depth, int ply) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+        if (Move.removal(move) != 0) {
+            return;     // mills are ordered first anyway, keep the tables for the quiet moves
+        }
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] sideHistory = history[state.getSideToMove()];
+        sideHistory[move & 0x3FF] += depth * depth;
+        if (sideHistory[move & 0x3FF] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halves the history, so the moves of the current search count more than older ones
+     */
+    private void ageHistory() {
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Moves the move of the transposition table to the front of the list, if it is in it
+     */
+    private static void orderTableMove(int[] list, int count, int tableMove) {
+        if (tableMove == Move.NONE) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (list[i] == tableMove) {
+                list[i] = list[0];
+                list[0] = tableMove;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Win and loss scores are stored relative to the node, so they stay right when reached at another ply
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_BOUND) {
+            return score + ply;
+        }
+        return score < -WIN_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_BOUND) {
+            return score - ply;
+        }
+        return score < -WIN_BOUND ? score + ply : score;
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Sets the endgame database the search reads exact scores from, null to search without it
+     */
+    public void setEndgameDatabase(EndgameDatabase endgames) {
+        this.endgames = endgames;
+    }
+
+    /**
+     * Sets the evaluation weights of this search, null to use the weights loaded by {@link Evaluation}
+     *
+     * @param weights the weights by phase and term, see {@link Evaluation#readWeights(java.nio.file.Path)}
+     */
+    public void setWeights(int[][] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Switches the move ordering heuristics, a combination of the ORDER flags
+     *
+     * @param ordering the heuristics to use, {@link #ORDER_ALL} by default
+     */
+    public void setOrdering(int ordering) {
+        this.ordering = ordering;
+    }
+
+    public int getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Number of nodes of the last search where a move failed high
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Number of nodes of the last search where the first move tried failed high, the share of the cutoffs
+     * tells how good the move ordering is
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Depth of the deepest iteration the last search finished
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Score of the move chosen by the last search, for the side that was to move
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,217 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class holds the static tables of the board as 24-bit masks, built once from the ring/index scheme.
+ * <p>
+ * Positions are numbered 1..24, ring 1 (inner) is 1..8, ring 2 is 9..16 and ring 3 (outer) is 17..24.
+ * Inside a ring the odd indices are the corners and the even indices are the middle of the sides,
+ * which are the only positions connected to the other rings. Position index i is bit (i - 1) of a mask.
+ * <p>
+ * The 16 mill lines are stored as masks so mill questions can be answered with mask tests.
+ */
+
+public final class Bitboards {
+
+    public static final int SIZE = 24;
+
+    public static final int FULL = (1 << SIZE) - 1;
+
+    public static final int MILL_COUNT = 16;
+
+    private static final int[] ADJACENT_MASK = new int[SIZE + 1];
+
+    private static final int[] MILLS = new int[MILL_COUNT];
+
+    // the two mill lines through each position index, every point is on exactly two lines
+    private static final int[][] MILLS_THROUGH = new int[SIZE + 1][2];
+
+    // numbers of the two mill lines through each position index
+    private static final int[][] LINES_THROUGH = new int[SIZE + 1][2];
+
+    // for each mill line the other lines sharing a position with it, as a 16-bit mask of line numbers
+    private static final int[] CROSSING_LINES = new int[MILL_COUNT];
+
+    static {
+        for (int index = 1; index <= SIZE; index++) {
+            int ring = (index - 1) / 8;
+            int k = (index - 1) % 8;
+
+            //neighbours along the ring
+            int adjacent = bit(ringIndex(ring, k - 1)) | bit(ringIndex(ring, k + 1));
+            //middle of the sides connect to the other rings
+            if (k % 2 == 1) {
+                if (ring > 0) {
+                    adjacent |= bit(index - 8);
+                }
+                if (ring < 2) {
+                    adjacent |= bit(index + 8);
+                }
+            }
+            ADJACENT_MASK[index] = adjacent;
+
+            //the first line is across the rings (middle of a side) or the side before the corner,
+            //the second line is along the ring (middle of a side) or the side after the corner
+            if (k % 2 == 1) {
+                MILLS_THROUGH[index][0] = bit(ringIndex(0, k)) | bit(ringIndex(1, k)) | bit(ringIndex(2, k));
+                MILLS_THROUGH[index][1] = bit(ringIndex(ring, k - 1)) | bit(index) | bit(ringIndex(ring, k + 1));
+            } else {
+                MILLS_THROUGH[index][0] = bit(ringIndex(ring, k - 2)) | bit(ringIndex(ring, k - 1)) | bit(index);
+                MILLS_THROUGH[index][1] = bit(index) | bit(ringIndex(ring, k + 1)) | bit(ringIndex(ring, k + 2));
+            }
+        }
+
+        //4 lines along the sides of each ring, then 4 lines across the rings
+        int mill = 0;
+        for (int ring = 0; ring < 3; ring++) {
+            for (int k = 0; k < 8; k += 2) {
+                MILLS[mill++] = bit(ringIndex(ring, k)) | bit(ringIndex(ring, k + 1)) | bit(ringIndex(ring, k + 2));
+            }
+        }
+        for (int k = 1; k < 8; k += 2) {
+            MILLS[mill++] = bit(ringIndex(0, k)) | bit(ringIndex(1, k)) | bit(ringIndex(2, k));
+        }
+
+        int[] found = new int[SIZE + 1];
+        for (int line = 0; line < MILL_COUNT; line++) {
+            for (int other = 0; other < MILL_COUNT; other++) {
+                if (other != line && (MILLS[line] & MILLS[other]) != 0) {
+                    CROSSING_LINES[line] |= 1 << other;
+                }
+            }
+            int points = MILLS[line];
+            while (points != 0) {
+                int index = lowestIndex(points);
+                points &= points - 1;
+                LINES_THROUGH[index][found[index]++] = line;
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * Position index (1..24) of the k-th point of a ring, wrapping around the ring
+     */
+    private static int ringIndex(int ring, int k) {
+        return ring * 8 + Math.floorMod(k, 8) + 1;
+    }
+
+    /**
+     * Bit of a position index (1..24) in a 24-bit board mask
+     */
+    public static int bit(int index) {
+        return 1 << (index - 1);
+    }
+
+    /**
+     * Position index (1..24) of the lowest set bit of a non empty mask
+     */
+    public static int lowestIndex(int mask) {
+        return Integer.numberOfTrailingZeros(mask) + 1;
+    }
+
+    /**
+     * Mask of the positions a token at the index can slide to
+     *
+     * @param index the position index on the board
+     */
+    public static int adjacentMask(int index) {
+        return ADJACENT_MASK[index];
+    }
+
+    /**
+     * Mask of one of the two mill lines through the index, including the index itself
+     *
+     * @param index the position index on the board
+     * @param line  0 or 1
+     */
+    public static int millThrough(int index, int line) {
+        return MILLS_THROUGH[index][line];
+    }
+
+    /**
+     * Mask of the i-th of the 16 mill lines
+     *
+     * @param i the mill line number, 0..15
+     */
+    public static int mill(int i) {
+        return MILLS[i];
+    }
+
+    /**
+     * Number (0..15) of one of the two mill lines through the index
+     *
+     * @param index the position index on the board
+     * @param line  0 or 1
+     */
+    public static int lineThrough(int index, int line) {
+        return LINES_THROUGH[index][line];
+    }
+
+    /**
+     * Mask of the numbers of the mill lines sharing a position with the line, bit i is line i
+     *
+     * @param line the mill line number, 0..15
+     */
+    public static int crossingLines(int line) {
+        return CROSSING_LINES[line];
+    }
+
+    /**
+     * Checks whether the token at the index is part of a mill formed by the tokens in the mask
+     *
+     * @param index the position index on the board
+     * @param mask  the positions occupied by the colour of the token
+     */
+    public static boolean isInMill(int index, int mask) {
+        int[] lines = MILLS_THROUGH[index];
+        return (mask & lines[0]) == lines[0] || (mask & lines[1]) == lines[1];
+    }
+
+    /**
+     * Mask of all the tokens in the mask which are part of at least one mill
+     *
+     * @param mask the positions occupied by one colour
+     */
+    public static int millMembers(int mask) {
+        int members = 0;
+        for (int line : MILLS) {
+            if ((mask & line) == line) {
+                members |= line;
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Mask of the empty positions which complete a mill line holding two tokens of the mask,
+     * the open twos of a colour
+     *
+     * @param mask  the positions occupied by one colour
+     * @param empty the empty positions
+     */
+    public static int closingMask(int mask, int empty) {
+        int points = 0;
+        for (int line : MILLS) {
+            int rest = line & ~mask;
+            if ((rest & empty) == rest && Integer.bitCount(rest) == 1) {
+                points |= rest;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Mask of the tokens in the mask that can be removed by the opponent.
+     * Tokens in a mill are protected unless every token of the colour is in a mill.
+     *
+     * @param mask the positions occupied by the colour whose token is removed
+     */
+    public static int removableMask(int mask) {
+        int free = mask & ~millMembers(mask);
+        return free != 0 ? free : mask;
+    }
+}
@@ -0,0 +1,162 @@
+package main.java.Engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class probes the endgame databases built by {@code Tools.EndgameGenerator}. The files are memory mapped,
+ * a probe is one byte read from the page cache.
+ * <p>
+ * There is one file per endgame, endgame_a_b.db for a tokens of the side to move and b tokens of the opponent,
+ * all tokens placed and no removal pending. The file is a header followed by one byte per position, one for all
+ * symmetric positions, in the order of {@link EndgameIndex}: 0 is a draw, otherwise the number of plies to the
+ * end of the game with best play, odd when the side to move wins and even when it loses.
+ * <p>
+ * Header: magic, version, a, b and the largest distance in the file as ints, then the number of positions as
+ * a long, 28 bytes in big endian.
+ */
+
+public final class EndgameDatabase {
+
+    public static final int MAGIC = 0x4E4D4D44;    // "NMMD"
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 28;
+
+    /**
+     * Value of a draw
+     */
+    public static final int DRAW = 0;
+
+    private final MappedByteBuffer[][] tables = new MappedByteBuffer[Bitboards.SIZE + 1][Bitboards.SIZE + 1];
+    private final EndgameIndex[][] indices = new EndgameIndex[Bitboards.SIZE + 1][Bitboards.SIZE + 1];
+    private final int[][] maxDistances = new int[Bitboards.SIZE + 1][Bitboards.SIZE + 1];
+
+    private EndgameDatabase() {
+    }
+
+    /**
+     * Maps all the endgame files of a directory
+     *
+     * @param directory the directory holding the endgame_a_b.db files
+     * @throws IOException if a file cannot be read or is not an endgame database
+     */
+    public static EndgameDatabase open(Path directory) throws IOException {
+        EndgameDatabase database = new EndgameDatabase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "endgame_*_*.db")) {
+            for (Path file : files) {
+                database.map(file);
+            }
+        }
+        return database;
+    }
+
+    /**
+     * Name of the file of the endgame
+     */
+    public static String fileName(int own, int opponent) {
+        return "endgame_" + own + "_" + opponent + ".db";
+    }
+
+    /**
+     * Maps one endgame file, replacing an endgame with the same token counts
+     */
+    void map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not an endgame database");
+            }
+            int own = buffer.getInt(8);
+            int opponent = buffer.getInt(12);
+            EndgameIndex index = new EndgameIndex(own, opponent);
+            if (buffer.getLong(20) != index.size() || channel.size() != HEADER_BYTES + (long) index.size()) {
+                throw new IOException(file + " has the wrong size for " + own + " against " + opponent + " tokens");
+            }
+            tables[own][opponent] = buffer;
+            indices[own][opponent] = index;
+            maxDistances[own][opponent] = buffer.getInt(16);
+        }
+    }
+
+    /**
+     * Writes the values of an endgame to a file in the database format
+     *
+     * @param file        the file to write
+     * @param index       the index of the endgame
+     * @param values      the value of every position
+     * @param maxDistance the largest distance in the values
+     */
+    public static void write(Path file, EndgameIndex index, byte[] values, int maxDistance) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16))) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(index.getOwn());
+            data.writeInt(index.getOpponent());
+            data.writeInt(maxDistance);
+            data.writeLong(values.length);
+            data.write(values);
+        }
+    }
+
+    /**
+     * Checks whether the database holds the endgame
+     */
+    public boolean contains(int own, int opponent) {
+        return own <= Bitboards.SIZE && opponent <= Bitboards.SIZE && tables[own][opponent] != null;
+    }
+
+    /**
+     * Largest distance to the end of the endgame, 0 if the database does not hold it
+     */
+    public int getMaxDistance(int own, int opponent) {
+        return contains(own, opponent) ? maxDistances[own][opponent] : 0;
+    }
+
+    /**
+     * Looks up the position by the masks of both sides
+     *
+     * @return the value of the position, -1 if the database does not hold the endgame
+     */
+    public int probe(int ownMask, int opponentMask) {
+        int own = Integer.bitCount(ownMask);
+        int opponent = Integer.bitCount(opponentMask);
+        if (!contains(own, opponent)) {
+            return -1;
+        }
+        ByteBuffer table = tables[own][opponent];
+        return table.get(HEADER_BYTES + indices[own][opponent].indexOf(ownMask, opponentMask)) & 0xFF;
+    }
+
+    /**
+     * Looks up the state, which has to have all tokens placed and no removal pending
+     *
+     * @return the value of the state for the side to move, -1 if the database does not hold it
+     */
+    public int probe(GameState state) {
+        if (state.isGameOver() || state.isRemovalPending()
+                || state.getPiecesInHand(GameState.BLACK) != 0 || state.getPiecesInHand(GameState.WHITE) != 0) {
+            return -1;
+        }
+        int side = state.getSideToMove();
+        return probe(state.getMask(side), state.getMask(side ^ 1));
+    }
+
+    /**
+     * Checks whether a value is a win for the side to move
+     */
+    public static boolean isWin(int value) {
+        return (value & 1) != 0;
+    }
+}
@@ -0,0 +1,183 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class numbers the positions of an endgame with a tokens for the side to move and b tokens for the
+ * opponent, all tokens placed, with consecutive indices 0..size-1 using the combinatorial number system.
+ * <p>
+ * Positions are first mapped by a symmetry, see {@link Symmetry}, so the tokens of the side to move are the
+ * smallest mask of their class, only these canonical masks are ranked. The tokens of the opponent are not
+ * canonicalized any further: when the canonical mask is mapped to itself by more than one symmetry, the positions
+ * these symmetries map onto each other get several indices and {@link #indexOf(int, int)} only returns one of them.
+ * The other indices are still valid positions, solved and stored, but never looked up: 19% of the indices for 3v3
+ * and 3v4, 12% for 4v3 and 4v4, 6% for 5v3.
+ * <p>
+ * The index is rank(own) * C(24 - a, b) + rank(opponent), where the tokens of the opponent are ranked among
+ * the 24 - a positions left free by the side to move, so no index is spent on overlapping tokens.
+ * A set of positions p0 &lt; p1 &lt; ... is ranked as C(p0, 1) + C(p1, 2) + ..., the canonical masks of the
+ * side to move are then numbered in that order.
+ */
+
+public final class EndgameIndex {
+
+    private static final int[][] BINOMIAL = new int[Bitboards.SIZE + 1][Bitboards.SIZE + 1];
+
+    static {
+        for (int n = 0; n <= Bitboards.SIZE; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final int own;
+    private final int opponent;
+    private final int opponentCount;
+    private final int size;
+
+    // canonical masks of the tokens of the side to move by rank
+    private final int[] ownMasks;
+    // rank among the canonical masks by the rank among all masks, -1 if not canonical
+    private final int[] ownRanks;
+    // tokens of the opponent by rank, as a mask over the free positions numbered 0..23-a
+    private final int[] opponentPatterns;
+
+    /**
+     * Constructor for the index of the endgame
+     *
+     * @param own      number of tokens of the side to move
+     * @param opponent number of tokens of the opponent
+     */
+    public EndgameIndex(int own, int opponent) {
+        if (own < 0 || opponent < 0 || own + opponent > Bitboards.SIZE) {
+            throw new IllegalArgumentException("No endgame with " + own + " and " + opponent + " tokens");
+        }
+        this.own = own;
+        this.opponent = opponent;
+        opponentCount = BINOMIAL[Bitboards.SIZE - own][opponent];
+        int[] all = subsets(Bitboards.SIZE, own);
+        ownRanks = new int[all.length];
+        int canonical = 0;
+        for (int rank = 0; rank < all.length; rank++) {
+            ownRanks[rank] = isCanonical(all[rank]) ? canonical++ : -1;
+        }
+        ownMasks = new int[canonical];
+        for (int rank = 0; rank < all.length; rank++) {
+            if (ownRanks[rank] >= 0) {
+                ownMasks[ownRanks[rank]] = all[rank];
+            }
+        }
+        size = canonical * opponentCount;
+        opponentPatterns = subsets(Bitboards.SIZE - own, opponent);
+    }
+
+    /**
+     * All subsets of k of the n bits, in the order of their rank
+     */
+    private static int[] subsets(int n, int k) {
+        int[] masks = new int[BINOMIAL[n][k]];
+        if (k == 0) {
+            return masks;
+        }
+        //Gosper's hack enumerates the k-subsets in increasing order, which is the colex rank order
+        int mask = (1 << k) - 1;
+        for (int rank = 0; rank < masks.length; rank++) {
+            masks[rank] = mask;
+            int lowest = mask & -mask;
+            int ripple = mask + lowest;
+            mask = (((ripple ^ mask) >>> 2) / lowest) | ripple;
+        }
+        return masks;
+    }
+
+    private static boolean isCanonical(int mask) {
+        for (int s = 1; s < Symmetry.COUNT; s++) {
+            if (Symmetry.transformMask(s, mask) < mask) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    public int getOwn() {
+        return own;
+    }
+
+    public int getOpponent() {
+        return opponent;
+    }
+
+    /**
+     * Number of positions of the endgame
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Index of the position, which is the index of all its symmetric positions
+     *
+     * @param ownMask      positions of the side to move, a tokens
+     * @param opponentMask positions of the opponent, b tokens
+     */
+    public int indexOf(int ownMask, int opponentMask) {
+        int symmetry = Symmetry.canonical(ownMask, opponentMask);
+        ownMask = Symmetry.transformMask(symmetry, ownMask);
+        opponentMask = Symmetry.transformMask(symmetry, opponentMask);
+        int ownRank = 0;
+        int k = 1;
+        int mask = ownMask;
+        while (mask != 0) {
+            ownRank += BINOMIAL[Integer.numberOfTrailingZeros(mask)][k++];
+            mask &= mask - 1;
+        }
+        int opponentRank = 0;
+        k = 1;
+        mask = opponentMask;
+        while (mask != 0) {
+            int square = Integer.numberOfTrailingZeros(mask);
+            //number of the square among the positions left free by the side to move
+            int free = square - Integer.bitCount(ownMask & ((1 << square) - 1));
+            opponentRank += BINOMIAL[free][k++];
+            mask &= mask - 1;
+        }
+        return ownRanks[ownRank] * opponentCount + opponentRank;
+    }
+
+    /**
+     * Positions of the side to move at the index
+     */
+    public int ownMask(int index) {
+        return ownMasks[index / opponentCount];
+    }
+
+    /**
+     * Positions of the opponent at the index
+     *
+     * @param index   the index of the position
+     * @param ownMask the positions of the side to move at the index, see {@link #ownMask(int)}
+     */
+    public int opponentMask(int index, int ownMask) {
+        int pattern = opponentPatterns[index % opponentCount];
+        int free = ~ownMask & Bitboards.FULL;
+        int mask = 0;
+        int slot = 0;
+        while (pattern != 0) {
+            int next = Integer.numberOfTrailingZeros(pattern);
+            pattern &= pattern - 1;
+            //skip to the next-th free position
+            while (slot < next) {
+                free &= free - 1;
+                slot++;
+            }
+            mask |= free & -free;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,181 @@
+package main.java.Engine;
+
+import main.java.Utils.GamePhase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class scores a {@link GameState} from the point of view of the side to move, used at the leaves of
+ * the search. Positive scores are good for the side to move.
+ * <p>
+ * The score is the weighted difference of the terms of both sides: tokens on the board, tokens in hand and the
+ * board terms kept incrementally in {@link EvaluationTerms}. There is a set of weights for each phase:
+ * placement, movement and flying (a side has 3 tokens left).
+ * <p>
+ * The weights are read from a properties file with keys like {@code movement.mobility=6}, so they can be tuned
+ * without recompiling. The file is given with -Deval.weights=&lt;path&gt;, otherwise evaluation.properties
+ * on the classpath is used. Missing keys keep their default weight.
+ */
+
+public final class Evaluation {
+
+    /**
+     * Names of the terms, the second part of a weight key
+     */
+    public static final String[] TERMS = {"material", "inHand", "mills", "openTwos", "doubleMills", "mobility", "blocked"};
+
+    /**
+     * Names of the phases, the first part of a weight key
+     */
+    public static final String[] PHASES = {"placement", "movement", "flying"};
+
+    private static final int MATERIAL = 0;
+    private static final int IN_HAND = 1;
+    private static final int MILLS = 2;
+    private static final int OPEN_TWOS = 3;
+    private static final int DOUBLE_MILLS = 4;
+    private static final int MOBILITY = 5;
+    private static final int BLOCKED = 6;
+
+    private static final int PLACEMENT = 0;
+    private static final int MOVEMENT = 1;
+    private static final int FLYING = 2;
+
+    private static final int[][] DEFAULT_WEIGHTS = {
+            {100, 100, 30, 25, 10, 2, -5},
+            {100, 0, 20, 20, 40, 6, -15},
+            {100, 0, 10, 60, 10, 0, 0}
+    };
+
+    private static volatile int[][] weights = DEFAULT_WEIGHTS;
+
+    static {
+        String file = System.getProperty("eval.weights");
+        try {
+            if (file != null) {
+                loadWeights(Paths.get(file));
+            } else {
+                try (InputStream in = Evaluation.class.getResourceAsStream("/evaluation.properties")) {
+                    if (in != null) {
+                        Properties properties = new Properties();
+                        properties.load(in);
+                        setWeights(properties);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not load evaluation weights, using the defaults: " + e.getMessage());
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    /**
+     * Scores the state for the side to move.
+     *
+     * @param state the game state
+     */
+    public static int evaluate(GameState state) {
+        return evaluate(state, weights);
+    }
+
+    /**
+     * Scores the state for the side to move with the weights instead of the loaded weights.
+     *
+     * @param state   the game state
+     * @param weights the weights by phase and term, see {@link #readWeights(Path)}
+     */
+    public static int evaluate(GameState state, int[][] weights) {
+        int side = state.getSideToMove();
+        int other = side ^ 1;
+        int[] w = weights[phaseOf(state)];
+        EvaluationTerms terms = state.getTerms();
+        return w[MATERIAL] * (state.getPiecesOnBoard(side) - state.getPiecesOnBoard(other))
+                + w[IN_HAND] * (state.getPiecesInHand(side) - state.getPiecesInHand(other))
+                + w[MILLS] * (terms.getMills(side) - terms.getMills(other))
+                + w[OPEN_TWOS] * (terms.getOpenTwos(side) - terms.getOpenTwos(other))
+                + w[DOUBLE_MILLS] * (terms.getDoubleMills(side) - terms.getDoubleMills(other))
+                + w[MOBILITY] * (terms.getMobility(side) - terms.getMobility(other))
+                + w[BLOCKED] * (terms.getBlocked(side) - terms.getBlocked(other));
+    }
+
+    private static int phaseOf(GameState state) {
+        if (state.getPhase() == GamePhase.PLACEMENT) {
+            return PLACEMENT;
+        }
+        return state.isFlying(GameState.BLACK) || state.isFlying(GameState.WHITE) ? FLYING : MOVEMENT;
+    }
+
+    /**
+     * Loads the weights from a properties file, see the class comment for the keys
+     *
+     * @param file the properties file
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a weight is not a number
+     */
+    public static void loadWeights(Path file) throws IOException {
+        weights = readWeights(file);
+        System.out.println("Loaded evaluation weights from " + file);
+    }
+
+    /**
+     * Reads the weights from a properties file without loading them, e.g. to compare two sets of weights
+     *
+     * @param file the properties file
+     * @return the weights by phase and term
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a weight is not a number
+     */
+    public static int[][] readWeights(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return parseWeights(properties);
+    }
+
+    /**
+     * Sets the weights from properties, the weights of missing keys are the defaults
+     *
+     * @param properties the weights keyed by phase.term
+     * @throws IllegalArgumentException if a weight is not a number
+     */
+    public static void setWeights(Properties properties) {
+        weights = parseWeights(properties);
+    }
+
+    private static int[][] parseWeights(Properties properties) {
+        int[][] loaded = new int[PHASES.length][TERMS.length];
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            for (int term = 0; term < TERMS.length; term++) {
+                String key = PHASES[phase] + "." + TERMS[term];
+                String value = properties.getProperty(key);
+                try {
+                    loaded[phase][term] = value == null ? DEFAULT_WEIGHTS[phase][term] : Integer.parseInt(value.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Weight " + key + " is not a number: " + value, e);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Weight of a term in a phase
+     *
+     * @param phase index into {@link #PHASES}
+     * @param term  index into {@link #TERMS}
+     */
+    public static int getWeight(int phase, int term) {
+        return weights[phase][term];
+    }
+}
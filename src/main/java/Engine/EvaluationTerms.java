@@ -0,0 +1,169 @@
+package main.java.Engine;
+
+import java.util.Arrays;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class holds the board terms of the evaluation for both sides, kept up to date by {@link GameState}
+ * every time a token is put on or taken off the board, so the evaluation never rescans the board.
+ * <p>
+ * A token changes the count of the two mill lines through its position and the free neighbours of at most
+ * four tokens, so every update is a handful of table lookups.
+ * <p>
+ * Terms per side:
+ * mills - mill lines filled by the side
+ * open twos - mill lines with two tokens of the side and an empty third position
+ * double mills - pairs of mills of the side sharing a token
+ * mobility - sum of the free neighbours of the tokens of the side
+ * blocked - tokens of the side without a free neighbour
+ */
+
+public final class EvaluationTerms {
+
+    private final int[][] lineCounts = new int[2][Bitboards.MILL_COUNT];
+    // 16-bit masks of the mill lines filled by each side
+    private final int[] millLines = new int[2];
+    private final int[] openTwos = new int[2];
+    private final int[] doubleMills = new int[2];
+    private final int[] mobility = new int[2];
+    private final int[] blocked = new int[2];
+
+    EvaluationTerms() {
+    }
+
+    void clear() {
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(lineCounts[side], 0);
+            millLines[side] = 0;
+            openTwos[side] = 0;
+            doubleMills[side] = 0;
+            mobility[side] = 0;
+            blocked[side] = 0;
+        }
+    }
+
+    void copyFrom(EvaluationTerms other) {
+        for (int side = 0; side < 2; side++) {
+            System.arraycopy(other.lineCounts[side], 0, lineCounts[side], 0, Bitboards.MILL_COUNT);
+            millLines[side] = other.millLines[side];
+            openTwos[side] = other.openTwos[side];
+            doubleMills[side] = other.doubleMills[side];
+            mobility[side] = other.mobility[side];
+            blocked[side] = other.blocked[side];
+        }
+    }
+
+    /**
+     * Updates the terms after a token of the side was put on the index
+     *
+     * @param masks the masks of both sides, already including the token
+     */
+    void add(int side, int index, int[] masks) {
+        updateLine(side, Bitboards.lineThrough(index, 0), 1);
+        updateLine(side, Bitboards.lineThrough(index, 1), 1);
+
+        int empty = ~(masks[0] | masks[1]) & Bitboards.FULL;
+        int adjacent = Bitboards.adjacentMask(index);
+        //the neighbours lose the position as a free neighbour
+        int neighbours = adjacent & ~empty;
+        while (neighbours != 0) {
+            int neighbour = Bitboards.lowestIndex(neighbours);
+            neighbours &= neighbours - 1;
+            int owner = (masks[0] & Bitboards.bit(neighbour)) != 0 ? 0 : 1;
+            mobility[owner]--;
+            if ((Bitboards.adjacentMask(neighbour) & empty) == 0) {
+                blocked[owner]++;
+            }
+        }
+        int free = Integer.bitCount(adjacent & empty);
+        mobility[side] += free;
+        if (free == 0) {
+            blocked[side]++;
+        }
+    }
+
+    /**
+     * Updates the terms after a token of the side was taken off the index
+     *
+     * @param masks the masks of both sides, already without the token
+     */
+    void remove(int side, int index, int[] masks) {
+        updateLine(side, Bitboards.lineThrough(index, 0), -1);
+        updateLine(side, Bitboards.lineThrough(index, 1), -1);
+
+        int empty = ~(masks[0] | masks[1]) & Bitboards.FULL;
+        int adjacent = Bitboards.adjacentMask(index);
+        int free = Integer.bitCount(adjacent & empty);
+        mobility[side] -= free;
+        if (free == 0) {
+            blocked[side]--;
+        }
+        //the neighbours get the position as a free neighbour
+        int neighbours = adjacent & ~empty;
+        while (neighbours != 0) {
+            int neighbour = Bitboards.lowestIndex(neighbours);
+            neighbours &= neighbours - 1;
+            int owner = (masks[0] & Bitboards.bit(neighbour)) != 0 ? 0 : 1;
+            mobility[owner]++;
+            if ((Bitboards.adjacentMask(neighbour) & empty) == Bitboards.bit(index)) {
+                blocked[owner]--;
+            }
+        }
+    }
+
+    /**
+     * Changes the count of the side on the line by delta and updates the mill terms of both sides
+     */
+    private void updateLine(int side, int line, int delta) {
+        int other = side ^ 1;
+        int[] own = lineCounts[side];
+        int[] theirs = lineCounts[other];
+        openTwos[side] -= isOpenTwo(own[line], theirs[line]);
+        openTwos[other] -= isOpenTwo(theirs[line], own[line]);
+        if (own[line] == 3) {
+            millLines[side] &= ~(1 << line);
+            doubleMills[side] -= Integer.bitCount(millLines[side] & Bitboards.crossingLines(line));
+        }
+        own[line] += delta;
+        if (own[line] == 3) {
+            doubleMills[side] += Integer.bitCount(millLines[side] & Bitboards.crossingLines(line));
+            millLines[side] |= 1 << line;
+        }
+        openTwos[side] += isOpenTwo(own[line], theirs[line]);
+        openTwos[other] += isOpenTwo(theirs[line], own[line]);
+    }
+
+    private static int isOpenTwo(int own, int theirs) {
+        return own == 2 && theirs == 0 ? 1 : 0;
+    }
+
+    public int getMills(int side) {
+        return Integer.bitCount(millLines[side]);
+    }
+
+    public int getOpenTwos(int side) {
+        return openTwos[side];
+    }
+
+    public int getDoubleMills(int side) {
+        return doubleMills[side];
+    }
+
+    public int getMobility(int side) {
+        return mobility[side];
+    }
+
+    public int getBlocked(int side) {
+        return blocked[side];
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationTerms{mills=" + getMills(0) + '/' + getMills(1)
+                + ", openTwos=" + openTwos[0] + '/' + openTwos[1]
+                + ", doubleMills=" + doubleMills[0] + '/' + doubleMills[1]
+                + ", mobility=" + mobility[0] + '/' + mobility[1]
+                + ", blocked=" + blocked[0] + '/' + blocked[1] + '}';
+    }
+}
@@ -0,0 +1,545 @@
+package main.java.Engine;
+
+import main.java.Utils.Colour;
+import main.java.Utils.GamePhase;
+
+import java.util.Arrays;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class is the headless rules core of the game. It has no dependency on JavaFX and is driven by
+ * packed int moves (see {@link Move}) through {@link #apply(int)}.
+ * <p>
+ * Rules:
+ * PLACEMENT - both players place their 9 tokens in turn on any empty position.
+ * MOVEMENT - tokens slide to an empty neighbour, a player with exactly 3 tokens left flies anywhere.
+ * A token placed or moved into a mill removes an opponent token, tokens in a mill are protected unless
+ * every opponent token is in a mill. A player with no tokens left to place and fewer than 3 tokens on the
+ * board loses, a player who cannot move in the MOVEMENT phase ends the game in a draw.
+ * <p>
+ * Sides are ints matching {@link Colour#ordinal()}, BLACK moves first.
+ * <p>
+ * Every move made is recorded on a primitive undo stack, so {@link #unmakeMove()} restores the previous state
+ * without cloning the board. Search walks the game tree with makeMove/unmakeMove.
+ * <p>
+ * The 64 bit {@link Zobrist} hash of the state is updated incrementally by every move, and the hash before every
+ * move is kept next to its undo record for unmaking and repetition checks.
+ * <p>
+ * Every token put on or taken off the board also updates the {@link EvaluationTerms} of the state.
+ */
+
+public class GameState {
+
+    public static final int BLACK = 0;
+    public static final int WHITE = 1;
+
+    public static final int PIECES_PER_PLAYER = 9;
+
+    public static final int RESULT_NONE = -1;
+    public static final int RESULT_DRAW = 2;
+
+    private static final Colour[] COLOURS = Colour.values();
+
+    private static final GamePhase[] PHASES = GamePhase.values();
+
+    // layout of an undo record, the move is stored in the low bits
+    private static final int UNDO_PHASE_SHIFT = 15;
+    private static final int UNDO_SIDE_SHIFT = 17;
+    private static final int UNDO_PENDING_SHIFT = 18;
+    private static final int UNDO_RESULT_SHIFT = 19;
+    private static final int UNDO_BLACK_HAND_SHIFT = 21;
+    private static final int UNDO_WHITE_HAND_SHIFT = 25;
+
+    // layout of a snapshot, the masks of BLACK and WHITE are stored in the low 48 bits
+    private static final int SNAPSHOT_HAND_SHIFT = 48;
+    private static final int SNAPSHOT_SIDE_SHIFT = 56;
+    private static final int SNAPSHOT_PENDING_SHIFT = 57;
+    private static final int SNAPSHOT_PHASE_SHIFT = 58;
+    private static final int SNAPSHOT_RESULT_SHIFT = 60;
+
+    private final int[] masks = new int[2];
+    private final int[] inHand = new int[2];
+    private final EvaluationTerms terms = new EvaluationTerms();
+
+    private int sideToMove;
+    private boolean removalPending;
+    private GamePhase phase;
+    private int result;
+    private long hash;
+
+    // undo records of the moves made, see makeMove
+    private long[] undoStack = new long[64];
+    // hash of the state before each move on the undo stack
+    private long[] hashStack = new long[64];
+    private int undoSize;
+
+    /**
+     * Constructor for a new game, BLACK to place the first token
+     */
+    public GameState() {
+        reset();
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other the state to copy
+     */
+    public GameState(GameState other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Resets the state to the start of a new game
+     */
+    public void reset() {
+        masks[BLACK] = 0;
+        masks[WHITE] = 0;
+        terms.clear();
+        inHand[BLACK] = PIECES_PER_PLAYER;
+        inHand[WHITE] = PIECES_PER_PLAYER;
+        sideToMove = BLACK;
+        removalPending = false;
+        phase = GamePhase.PLACEMENT;
+        result = RESULT_NONE;
+        undoSize = 0;
+        hash = Zobrist.compute(this);
+    }
+
+    /**
+     * Overwrites this state with another state
+     *
+     * @param other the state to copy
+     */
+    public void copyFrom(GameState other) {
+        masks[BLACK] = other.masks[BLACK];
+        masks[WHITE] = other.masks[WHITE];
+        terms.copyFrom(other.terms);
+        inHand[BLACK] = other.inHand[BLACK];
+        inHand[WHITE] = other.inHand[WHITE];
+        sideToMove = other.sideToMove;
+        removalPending = other.removalPending;
+        phase = other.phase;
+        result = other.result;
+        hash = other.hash;
+        if (undoStack.length < other.undoSize) {
+            undoStack = new long[other.undoStack.length];
+            hashStack = new long[other.undoStack.length];
+        }
+        System.arraycopy(other.undoStack, 0, undoStack, 0, other.undoSize);
+        System.arraycopy(other.hashStack, 0, hashStack, 0, other.undoSize);
+        undoSize = other.undoSize;
+    }
+
+    /**
+     * Packs the state without its moves into a long: the tokens of both sides, the tokens in hand, the side to
+     * move, a pending removal, the phase and the result. Restored with {@link #restore(long)}.
+     */
+    public long snapshot() {
+        return (masks[BLACK] & 0xFFFFFFL)
+                | (masks[WHITE] & 0xFFFFFFL) << Bitboards.SIZE
+                | (long) (inHand[BLACK] << 4 | inHand[WHITE]) << SNAPSHOT_HAND_SHIFT
+                | (long) sideToMove << SNAPSHOT_SIDE_SHIFT
+                | (removalPending ? 1L : 0L) << SNAPSHOT_PENDING_SHIFT
+                | (long) phase.ordinal() << SNAPSHOT_PHASE_SHIFT
+                | (long) (result + 1) << SNAPSHOT_RESULT_SHIFT;
+    }
+
+    /**
+     * Overwrites this state with a snapshot taken by {@link #snapshot()}. The moves made before the snapshot are
+     * not known, so the undo stack is empty afterwards.
+     *
+     * @param snapshot the packed state
+     */
+    public void restore(long snapshot) {
+        masks[BLACK] = 0;
+        masks[WHITE] = 0;
+        terms.clear();
+        for (int side = BLACK; side <= WHITE; side++) {
+            int mask = (int) (snapshot >>> side * Bitboards.SIZE) & Bitboards.FULL;
+            while (mask != 0) {
+                putToken(side, Bitboards.lowestIndex(mask));
+                mask &= mask - 1;
+            }
+        }
+        int hands = (int) (snapshot >>> SNAPSHOT_HAND_SHIFT);
+        inHand[BLACK] = hands >>> 4 & 0xF;
+        inHand[WHITE] = hands & 0xF;
+        sideToMove = (int) (snapshot >>> SNAPSHOT_SIDE_SHIFT & 1);
+        removalPending = (snapshot >>> SNAPSHOT_PENDING_SHIFT & 1) != 0;
+        phase = PHASES[(int) (snapshot >>> SNAPSHOT_PHASE_SHIFT & 3)];
+        result = (int) (snapshot >>> SNAPSHOT_RESULT_SHIFT & 3) - 1;
+        undoSize = 0;
+        hash = Zobrist.compute(this);
+    }
+
+    /**
+     * Mask of the positions occupied by the side
+     */
+    public int getMask(int side) {
+        return masks[side];
+    }
+
+    /**
+     * Mask of all the occupied positions
+     */
+    public int getOccupied() {
+        return masks[BLACK] | masks[WHITE];
+    }
+
+    /**
+     * Side occupying the position index, -1 if the position is empty
+     */
+    public int sideAt(int index) {
+        int bit = Bitboards.bit(index);
+        if ((masks[BLACK] & bit) != 0) {
+            return BLACK;
+        }
+        return (masks[WHITE] & bit) != 0 ? WHITE : -1;
+    }
+
+    /**
+     * Board terms of the evaluation, kept up to date by every move
+     */
+    public EvaluationTerms getTerms() {
+        return terms;
+    }
+
+    public int getPiecesInHand(int side) {
+        return inHand[side];
+    }
+
+    public int getPiecesOnBoard(int side) {
+        return Integer.bitCount(masks[side]);
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public Colour getColourToMove() {
+        return COLOURS[sideToMove];
+    }
+
+    /**
+     * True after a mill is closed, until the side to move removes an opponent token
+     */
+    public boolean isRemovalPending() {
+        return removalPending;
+    }
+
+    public GamePhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Result of the game, {@link #RESULT_NONE} while it is ongoing, the winning side or {@link #RESULT_DRAW}
+     */
+    public int getResult() {
+        return result;
+    }
+
+    public boolean isGameOver() {
+        return phase == GamePhase.GAMEOVER;
+    }
+
+    /**
+     * Number of moves made since the start of the game, a removal after a mill counts as its own move
+     * unless it was packed into the move that closed the mill
+     */
+    public int getPly() {
+        return undoSize;
+    }
+
+    /**
+     * The move made at the ply, 0 being the first move of the game
+     *
+     * @param ply the ply of the move, less than {@link #getPly()}
+     */
+    public int getMove(int ply) {
+        return (int) (undoStack[ply] & 0x7FFF);
+    }
+
+    /**
+     * 64 bit Zobrist hash of the tokens on the board, the tokens left to place, the side to move and
+     * whether a removal is pending. Equal states have equal hashes.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Hash of the state before the move at the ply was made
+     *
+     * @param ply the ply of the move, less than {@link #getPly()}
+     */
+    public long getHash(int ply) {
+        return hashStack[ply];
+    }
+
+    /**
+     * Checks whether the state occurred before in the game. Only the moves since the last placement or removal
+     * are checked, no earlier state can have the same tokens.
+     */
+    public boolean isRepetition() {
+        for (int ply = undoSize - 1; ply >= 0; ply--) {
+            int move = getMove(ply);
+            if (Move.isPlacement(move) || Move.removal(move) != 0) {
+                return false;
+            }
+            if (hashStack[ply] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A side flies when it has placed all its tokens and only 3 are left on the board
+     */
+    public boolean isFlying(int side) {
+        return inHand[side] == 0 && Integer.bitCount(masks[side]) == 3;
+    }
+
+    /**
+     * Checks whether the side to move has any legal placement or movement
+     */
+    public boolean hasLegalMove() {
+        return MoveGenerator.hasMoves(this);
+    }
+
+    /**
+     * Checks whether a move is legal for the side to move
+     *
+     * @param move packed move, see {@link Move}
+     */
+    public boolean isLegal(int move) {
+        if (phase == GamePhase.GAMEOVER) {
+            return false;
+        }
+        int side = sideToMove;
+        int other = side ^ 1;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int removal = Move.removal(move);
+
+        if (removalPending) {
+            return from == 0 && to == 0 && removal != 0 && canRemove(other, removal);
+        }
+        if (to < 1 || to > Bitboards.SIZE || (getOccupied() & Bitboards.bit(to)) != 0) {
+            return false;
+        }
+
+        int after;
+        if (phase == GamePhase.PLACEMENT) {
+            if (from != 0) {
+                return false;
+            }
+            after = masks[side] | Bitboards.bit(to);
+        } else {
+            if (from < 1 || from > Bitboards.SIZE || (masks[side] & Bitboards.bit(from)) == 0) {
+                return false;
+            }
+            if (!isFlying(side) && (Bitboards.adjacentMask(from) & Bitboards.bit(to)) == 0) {
+                return false;
+            }
+            after = masks[side] ^ Bitboards.bit(from) ^ Bitboards.bit(to);
+        }
+
+        if (removal == 0) {
+            return true;
+        }
+        return Bitboards.isInMill(to, after) && canRemove(other, removal);
+    }
+
+    /**
+     * Checks whether the token of the side at the index can be removed by the opponent
+     */
+    public boolean canRemove(int side, int index) {
+        return index >= 1 && index <= Bitboards.SIZE
+                && (Bitboards.removableMask(masks[side]) & Bitboards.bit(index)) != 0;
+    }
+
+    /**
+     * Applies a move for the side to move after checking that it is legal.
+     *
+     * @param move packed move, see {@link Move}
+     * @throws IllegalArgumentException if the move is not legal in this state
+     */
+    public void apply(int move) {
+        if (!isLegal(move)) {
+            throw new IllegalArgumentException("Illegal move " + Move.toString(move));
+        }
+        makeMove(move);
+    }
+
+    /**
+     * Makes a move for the side to move without checking that it is legal, and records it on the undo stack.
+     * Only use with moves that are known to be legal, e.g. from the move generator.
+     *
+     * @param move packed move, see {@link Move}
+     */
+    public void makeMove(int move) {
+        int side = sideToMove;
+        int other = side ^ 1;
+
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+            hashStack = Arrays.copyOf(hashStack, undoSize * 2);
+        }
+        hashStack[undoSize] = hash;
+        undoStack[undoSize++] = move
+                | (long) phase.ordinal() << UNDO_PHASE_SHIFT
+                | (long) side << UNDO_SIDE_SHIFT
+                | (removalPending ? 1L : 0L) << UNDO_PENDING_SHIFT
+                | (long) (result + 1) << UNDO_RESULT_SHIFT
+                | (long) inHand[BLACK] << UNDO_BLACK_HAND_SHIFT
+                | (long) inHand[WHITE] << UNDO_WHITE_HAND_SHIFT;
+
+        if (removalPending) {
+            int removal = Move.removal(move);
+            takeToken(other, removal);
+            removalPending = false;
+            hash ^= Zobrist.piece(other, removal) ^ Zobrist.PENDING;
+            endTurn();
+            return;
+        }
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (from == 0) {
+            putToken(side, to);
+            hash ^= Zobrist.piece(side, to) ^ Zobrist.hand(side, inHand[side]) ^ Zobrist.hand(side, inHand[side] - 1);
+            inHand[side]--;
+            if (inHand[BLACK] == 0 && inHand[WHITE] == 0) {
+                phase = GamePhase.MOVEMENT;
+            }
+        } else {
+            takeToken(side, from);
+            putToken(side, to);
+            hash ^= Zobrist.piece(side, from) ^ Zobrist.piece(side, to);
+        }
+
+        if (masks[other] != 0 && Bitboards.isInMill(to, masks[side])) {
+            int removal = Move.removal(move);
+            if (removal == 0) {
+                removalPending = true;
+                hash ^= Zobrist.PENDING;
+                return;
+            }
+            takeToken(other, removal);
+            hash ^= Zobrist.piece(other, removal);
+        }
+        endTurn();
+    }
+
+    /**
+     * Takes back the last move made, restoring the state before it.
+     *
+     * @return the move taken back
+     * @throws IllegalStateException if no move has been made
+     */
+    public int unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        long undo = undoStack[--undoSize];
+        int move = (int) (undo & 0x7FFF);
+        int side = (int) (undo >>> UNDO_SIDE_SHIFT & 1);
+        int other = side ^ 1;
+        boolean wasPending = (undo >>> UNDO_PENDING_SHIFT & 1) != 0;
+
+        int removal = Move.removal(move);
+        if (!wasPending) {
+            int from = Move.from(move);
+            int to = Move.to(move);
+            takeToken(side, to);
+            if (from != 0) {
+                putToken(side, from);
+            }
+        }
+        if (removal != 0) {
+            putToken(other, removal);
+        }
+
+        phase = PHASES[(int) (undo >>> UNDO_PHASE_SHIFT & 3)];
+        sideToMove = side;
+        removalPending = wasPending;
+        result = (int) (undo >>> UNDO_RESULT_SHIFT & 3) - 1;
+        inHand[BLACK] = (int) (undo >>> UNDO_BLACK_HAND_SHIFT & 0xF);
+        inHand[WHITE] = (int) (undo >>> UNDO_WHITE_HAND_SHIFT & 0xF);
+        hash = hashStack[undoSize];
+        return move;
+    }
+
+    /**
+     * Puts a token of the side on the empty position index
+     */
+    private void putToken(int side, int index) {
+        masks[side] |= Bitboards.bit(index);
+        terms.add(side, index, masks);
+    }
+
+    /**
+     * Takes the token of the side off the position index
+     */
+    private void takeToken(int side, int index) {
+        masks[side] &= ~Bitboards.bit(index);
+        terms.remove(side, index, masks);
+    }
+
+    /**
+     * Passes the turn to the opponent and updates the result of the game
+     */
+    private void endTurn() {
+        int mover = sideToMove;
+        int other = mover ^ 1;
+        sideToMove = other;
+        hash ^= Zobrist.SIDE;
+
+        if (inHand[other] == 0 && Integer.bitCount(masks[other]) < 3) {
+            result = mover;
+            phase = GamePhase.GAMEOVER;
+        } else if (phase == GamePhase.MOVEMENT && !hasLegalMove()) {
+            result = RESULT_DRAW;
+            phase = GamePhase.GAMEOVER;
+        }
+    }
+
+    /**
+     * Puts a token of the side at the position index, bypassing the rules.
+     * Used to set up positions, the turn and the tokens in hand are not changed.
+     */
+    public void setPiece(int index, int side) {
+        clearPiece(index);
+        putToken(side, index);
+        hash ^= Zobrist.piece(side, index);
+    }
+
+    /**
+     * Clears the position index, bypassing the rules.
+     * Used to set up positions, the turn and the tokens in hand are not changed.
+     */
+    public void clearPiece(int index) {
+        int side = sideAt(index);
+        if (side >= 0) {
+            takeToken(side, index);
+            hash ^= Zobrist.piece(side, index);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("GameState{");
+        for (int index = 1; index <= Bitboards.SIZE; index++) {
+            int side = sideAt(index);
+            sb.append(side == BLACK ? 'B' : side == WHITE ? 'W' : '.');
+        }
+        return sb.append(", toMove=").append(getColourToMove())
+                .append(", inHand=").append(inHand[BLACK]).append('/').append(inHand[WHITE])
+                .append(", phase=").append(phase)
+                .append(removalPending ? ", removalPending" : "")
+                .append('}').toString();
+    }
+}
@@ -0,0 +1,455 @@
+package main.java.Engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class chooses moves with Monte Carlo tree search, as an alternative to {@link AlphaBetaSearch}. Every
+ * playout walks down the tree picking children by UCT, expands the node it ends in and plays the game out with
+ * random moves. The result is added to the nodes on the way, the move played most often at the root is chosen.
+ * <p>
+ * Heavy playouts, on by default, close a mill when they can instead of moving at random. A playout longer than
+ * {@link #PLAYOUT_LIMIT} plies counts as a draw, as does a repeated position in the tree.
+ * <p>
+ * Several threads share the tree. A thread counts its visit on every node of its path before the playout and
+ * adds the result after it, so in the meantime the node looks like a loss to the other threads (virtual loss)
+ * and they spread over different paths.
+ * <p>
+ * The tree is kept between moves: the next search starts from the node of the new position if it is in the
+ * tree, up to two plies below the last root, with the playouts already made there.
+ * <p>
+ * A node budget counts playouts. There is no depth, a limit with only a depth runs
+ * {@link #PLAYOUTS_PER_DEPTH} playouts per ply of the depth.
+ */
+
+public class MonteCarloSearch implements SearchEngine {
+
+    public static final int PLAYOUT_LIMIT = 200;
+
+    public static final int PLAYOUTS_PER_DEPTH = 1000;
+
+    // nodes kept in the tree at most, the tree stops growing beyond
+    private static final int MAX_TREE_SIZE = 1 << 21;
+
+    // a node is expanded on its second visit
+    private static final int EXPAND_VISITS = 2;
+
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+
+    private final Worker[] workers;
+    private final ExecutorService executor;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final AtomicLong playouts = new AtomicLong();
+    private final AtomicInteger treeSize = new AtomicInteger();
+
+    private volatile double exploration = Math.sqrt(2);
+    private volatile boolean heavyPlayouts = true;
+
+    private Node root;
+    private long reusedPlayouts;
+    private long elapsedNanos;
+    private long deadline;
+    private long playoutLimit;
+
+    /**
+     * Constructor for a search with one thread
+     */
+    public MonteCarloSearch() {
+        this(1, 0x5DEECE66DL);
+    }
+
+    /**
+     * Constructor for a search with the number of threads
+     *
+     * @param threads the number of search threads, at least 1
+     * @param seed    the seed of the random playouts, every thread gets its own seed from it
+     */
+    public MonteCarloSearch(int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Search needs at least 1 thread, was " + threads);
+        }
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(seed + i);
+        }
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int chooseMove(GameState state, SearchLimits limits) {
+        long start = System.nanoTime();
+        Node reused = findNode(state);
+        if (reused == null) {
+            root = new Node(Move.NONE, state.getSideToMove() ^ 1);
+            treeSize.set(1);
+        } else {
+            root = reused;
+            treeSize.set(countNodes(root));
+        }
+        reusedPlayouts = root.visits.get();
+
+        stop.set(false);
+        playouts.set(0);
+        deadline = limits.getTimeMillis() == 0 ? Long.MAX_VALUE : start + limits.getTimeMillis() * 1_000_000L;
+        if (limits.getNodes() != 0) {
+            playoutLimit = limits.getNodes();
+        } else {
+            playoutLimit = limits.getTimeMillis() == 0 ? (long) limits.getDepth() * PLAYOUTS_PER_DEPTH : Long.MAX_VALUE;
+        }
+
+        GameState position = new GameState(state);
+        expand(root, position);
+        Node[] children = root.children;
+        if (children.length <= 1) {
+            elapsedNanos = System.nanoTime() - start;
+            return children.length == 0 ? Move.NONE : children[0].move;
+        }
+
+        List<Future<?>> results = new ArrayList<>(workers.length);
+        for (Worker worker : workers) {
+            results.add(executor.submit(() -> worker.run(position)));
+        }
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return bestChild(root).move;
+    }
+
+    /**
+     * Finds the node of the state in the tree of the last search, the root, a child or a grandchild
+     */
+    private Node findNode(GameState state) {
+        if (root == null) {
+            return null;
+        }
+        long hash = state.getHash();
+        if (root.hash == hash) {
+            return root;
+        }
+        Node[] children = root.children;
+        if (children == null) {
+            return null;
+        }
+        for (Node child : children) {
+            if (child.hash == hash) {
+                return child;
+            }
+            Node[] grandchildren = child.children;
+            if (grandchildren != null) {
+                for (Node grandchild : grandchildren) {
+                    if (grandchild.hash == hash) {
+                        return grandchild;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node next = pending.pop();
+            count++;
+            if (next.children != null) {
+                for (Node child : next.children) {
+                    pending.push(child);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds the children of the node in the state, once
+     */
+    private void expand(Node node, GameState state) {
+        synchronized (node) {
+            if (node.children != null) {
+                return;
+            }
+            node.hash = state.getHash();
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generate(state, moves);
+            int mover = state.getSideToMove();
+            Node[] children = new Node[count];
+            for (int i = 0; i < count; i++) {
+                children[i] = new Node(moves[i], mover);
+                state.makeMove(moves[i]);
+                children[i].hash = state.getHash();
+                state.unmakeMove();
+            }
+            treeSize.addAndGet(count);
+            node.children = children;
+        }
+    }
+
+    /**
+     * Child with the highest UCT value, an unvisited child first
+     */
+    private Node select(Node node) {
+        Node[] children = node.children;
+        double logVisits = Math.log(Math.max(1, node.visits.get()));
+        Node best = children[0];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            int visits = child.visits.get();
+            if (visits == 0) {
+                return child;
+            }
+            double value = child.score.get() / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static Node bestChild(Node node) {
+        Node best = node.children[0];
+        for (Node child : node.children) {
+            if (child.visits.get() > best.visits.get()) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Stops the worker threads, the search cannot be used afterwards
+     */
+    @Override
+    public void shutdown() {
+        stop.set(true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stops the running search, which returns the best move found so far
+     */
+    public void stop() {
+        stop.set(true);
+    }
+
+    /**
+     * Sets the exploration constant of UCT, higher values try more moves, the default is the square root of 2
+     */
+    public void setExploration(double exploration) {
+        this.exploration = exploration;
+    }
+
+    /**
+     * Switches between heavy playouts, closing a mill when possible, and purely random playouts
+     */
+    public void setHeavyPlayouts(boolean heavyPlayouts) {
+        this.heavyPlayouts = heavyPlayouts;
+    }
+
+    /**
+     * Drops the tree, the next search starts from scratch
+     */
+    public void clear() {
+        root = null;
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Playouts made by all the threads in the last search
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Playouts made in the last search, the node budget counts playouts
+     */
+    @Override
+    public long getNodes() {
+        return getPlayouts();
+    }
+
+    /**
+     * Playouts per second of all the threads in the last search
+     */
+    public long getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts.get() * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * Playouts of the root reused from the searches before
+     */
+    public long getReusedPlayouts() {
+        return reusedPlayouts;
+    }
+
+    /**
+     * Nodes in the tree after the last search
+     */
+    public int getTreeSize() {
+        return treeSize.get();
+    }
+
+    /**
+     * Wall clock time of the last search in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    /**
+     * Share of points the chosen move scored in the playouts, from 0 for a loss to 1 for a win
+     */
+    public double getBestValue() {
+        if (root == null || root.children == null || root.children.length == 0) {
+            return 0.5;
+        }
+        Node best = bestChild(root);
+        int visits = best.visits.get();
+        return visits == 0 ? 0.5 : best.score.get() / (2.0 * visits);
+    }
+
+    /**
+     * A node of the tree, the position after the move
+     */
+    private static final class Node {
+
+        final int move;
+        // side which played the move, the score is for this side
+        final int mover;
+        final AtomicInteger visits = new AtomicInteger();
+        // points of the playouts, 2 for a win and 1 for a draw
+        final AtomicLong score = new AtomicLong();
+
+        volatile long hash;
+        volatile Node[] children;
+
+        Node(int move, int mover) {
+            this.move = move;
+            this.mover = mover;
+        }
+    }
+
+    /**
+     * A search thread with its own state and random playouts
+     */
+    private final class Worker {
+
+        private final GameState state = new GameState();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final Node[] path = new Node[PLAYOUT_LIMIT + 1];
+        private final Random random;
+
+        Worker(long seed) {
+            random = new Random(seed);
+        }
+
+        void run(GameState position) {
+            while (!stop.get()) {
+                if (playouts.getAndIncrement() >= playoutLimit) {
+                    playouts.decrementAndGet();
+                    stop.set(true);
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    stop.set(true);
+                    break;
+                }
+                state.copyFrom(position);
+                iterate();
+            }
+        }
+
+        private void iterate() {
+            Node node = root;
+            int length = 0;
+            path[length++] = node;
+            node.visits.incrementAndGet();
+            boolean repeated = false;
+            while (node.children != null && !state.isGameOver() && length < path.length) {
+                node = select(node);
+                state.makeMove(node.move);
+                node.visits.incrementAndGet();
+                path[length++] = node;
+                if (state.isRepetition()) {
+                    repeated = true;
+                    break;
+                }
+            }
+            if (!repeated && !state.isGameOver() && length < path.length && node.visits.get() >= EXPAND_VISITS
+                    && treeSize.get() < MAX_TREE_SIZE) {
+                expand(node, state);
+                if (node.children.length > 0) {
+                    node = node.children[random.nextInt(node.children.length)];
+                    state.makeMove(node.move);
+                    node.visits.incrementAndGet();
+                    path[length++] = node;
+                }
+            }
+            int result = repeated ? GameState.RESULT_DRAW : playout();
+            for (int i = 0; i < length; i++) {
+                Node visited = path[i];
+                if (result == GameState.RESULT_DRAW) {
+                    visited.score.addAndGet(DRAW);
+                } else if (result == visited.mover) {
+                    visited.score.addAndGet(WIN);
+                }
+            }
+        }
+
+        /**
+         * Plays random moves to the end of the game
+         *
+         * @return the winning side or {@link GameState#RESULT_DRAW}
+         */
+        private int playout() {
+            for (int ply = 0; ply < PLAYOUT_LIMIT && !state.isGameOver(); ply++) {
+                int count = MoveGenerator.generate(state, moves);
+                int move = moves[random.nextInt(count)];
+                if (heavyPlayouts && Move.removal(move) == 0) {
+                    //close a mill if any move does, starting from a random move
+                    int first = random.nextInt(count);
+                    for (int i = 0; i < count; i++) {
+                        int candidate = moves[(first + i) % count];
+                        if (Move.removal(candidate) != 0) {
+                            move = candidate;
+                            break;
+                        }
+                    }
+                }
+                state.makeMove(move);
+            }
+            return state.isGameOver() ? state.getResult() : GameState.RESULT_DRAW;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class is used to encode the moves of the game as packed ints, so moves can be stored and passed
+ * around without allocating.
+ * <p>
+ * bits 0-4   : position index (1..24) the token is placed or moved to, 0 for a removal only
+ * bits 5-9   : position index (1..24) the token is moved from, 0 for a placement
+ * bits 10-14 : position index (1..24) of the opponent token removed after a mill, 0 if none
+ * <p>
+ * A placement or movement that closes a mill can carry its removal, or the removal can be applied
+ * afterwards as a separate removal only move.
+ */
+
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private static final int MASK = 0x1F;
+    private static final int FROM_SHIFT = 5;
+    private static final int REMOVAL_SHIFT = 10;
+
+    private Move() {
+    }
+
+    /**
+     * Placement of a new token at the position index
+     */
+    public static int place(int to) {
+        return to;
+    }
+
+    /**
+     * Movement of a token, sliding to a neighbour or flying anywhere
+     */
+    public static int slide(int from, int to) {
+        return from << FROM_SHIFT | to;
+    }
+
+    /**
+     * Removal of an opponent token after a mill
+     */
+    public static int remove(int removal) {
+        return removal << REMOVAL_SHIFT;
+    }
+
+    /**
+     * Adds the removal of an opponent token to a placement or movement that closes a mill
+     */
+    public static int withRemoval(int move, int removal) {
+        return (move & ~(MASK << REMOVAL_SHIFT)) | removal << REMOVAL_SHIFT;
+    }
+
+    public static int to(int move) {
+        return move & MASK;
+    }
+
+    public static int from(int move) {
+        return move >>> FROM_SHIFT & MASK;
+    }
+
+    public static int removal(int move) {
+        return move >>> REMOVAL_SHIFT & MASK;
+    }
+
+    public static boolean isPlacement(int move) {
+        return to(move) != 0 && from(move) == 0;
+    }
+
+    public static boolean isRemovalOnly(int move) {
+        return to(move) == 0 && removal(move) != 0;
+    }
+
+    /**
+     * Reads a move in the readable form of {@link #toString(int)}
+     *
+     * @param text the move, e.g. "5", "4-5", "4-5x12" or "x12"
+     * @return packed move
+     * @throws IllegalArgumentException if the text is not a move
+     */
+    public static int parse(String text) {
+        String rest = text.trim();
+        int removal = 0;
+        int x = rest.indexOf('x');
+        try {
+            if (x >= 0) {
+                removal = index(rest.substring(x + 1));
+                rest = rest.substring(0, x);
+            }
+            if (rest.isEmpty()) {
+                if (removal == 0) {
+                    throw new IllegalArgumentException("Not a move: " + text);
+                }
+                return remove(removal);
+            }
+            int dash = rest.indexOf('-');
+            int move = dash < 0 ? place(index(rest))
+                    : slide(index(rest.substring(0, dash)), index(rest.substring(dash + 1)));
+            return withRemoval(move, removal);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a move: " + text, e);
+        }
+    }
+
+    private static int index(String text) {
+        int index = Integer.parseInt(text);
+        if (index < 1 || index > Bitboards.SIZE) {
+            throw new IllegalArgumentException("No position " + index + ", positions are 1 to " + Bitboards.SIZE);
+        }
+        return index;
+    }
+
+    /**
+     * Readable form of a move, e.g. "5", "4-5", "4-5x12" or "x12"
+     */
+    public static String toString(int move) {
+        StringBuilder sb = new StringBuilder();
+        if (from(move) != 0) {
+            sb.append(from(move)).append('-');
+        }
+        if (to(move) != 0) {
+            sb.append(to(move));
+        }
+        if (removal(move) != 0) {
+            sb.append('x').append(removal(move));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package main.java.Engine;
+
+import main.java.Utils.GamePhase;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class generates the legal moves of a {@link GameState} as packed ints (see {@link Move}).
+ * <p>
+ * The moves are written into a buffer supplied by the caller, nothing is allocated per call.
+ * A placement or movement that closes a mill is generated once for every opponent token it can remove,
+ * with the removal packed into the move. While a removal is pending only the removals are generated.
+ */
+
+public final class MoveGenerator {
+
+    /**
+     * Upper bound of the number of legal moves in any position, the size a move buffer needs to be
+     */
+    public static final int MAX_MOVES = 512;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Writes the legal moves of the side to move into the buffer.
+     *
+     * @param state  the game state
+     * @param buffer the buffer to write the moves into, at least {@link #MAX_MOVES} long
+     * @return the number of moves written, 0 if the game is over
+     */
+    public static int generate(GameState state, int[] buffer) {
+        if (state.isGameOver()) {
+            return 0;
+        }
+        int side = state.getSideToMove();
+        int own = state.getMask(side);
+        int opponent = state.getMask(side ^ 1);
+        int empty = ~(own | opponent) & Bitboards.FULL;
+        int count = 0;
+
+        if (state.isRemovalPending()) {
+            return addRemovals(Move.NONE, Bitboards.removableMask(opponent), buffer, count);
+        }
+
+        int removable = Bitboards.removableMask(opponent);
+
+        if (state.getPhase() == GamePhase.PLACEMENT) {
+            int targets = empty;
+            while (targets != 0) {
+                int to = Bitboards.lowestIndex(targets);
+                targets &= targets - 1;
+                int move = Move.place(to);
+                if (opponent != 0 && Bitboards.isInMill(to, own | Bitboards.bit(to))) {
+                    count = addRemovals(move, removable, buffer, count);
+                } else {
+                    buffer[count++] = move;
+                }
+            }
+            return count;
+        }
+
+        boolean flying = state.isFlying(side);
+        int pieces = own;
+        while (pieces != 0) {
+            int from = Bitboards.lowestIndex(pieces);
+            pieces &= pieces - 1;
+            int rest = own & ~Bitboards.bit(from);
+            int targets = flying ? empty : Bitboards.adjacentMask(from) & empty;
+            while (targets != 0) {
+                int to = Bitboards.lowestIndex(targets);
+                targets &= targets - 1;
+                int move = Move.slide(from, to);
+                if (opponent != 0 && Bitboards.isInMill(to, rest | Bitboards.bit(to))) {
+                    count = addRemovals(move, removable, buffer, count);
+                } else {
+                    buffer[count++] = move;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the move once for every removable opponent token
+     */
+    private static int addRemovals(int move, int removable, int[] buffer, int count) {
+        while (removable != 0) {
+            buffer[count++] = Move.withRemoval(move, Bitboards.lowestIndex(removable));
+            removable &= removable - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the side to move has any legal placement or movement, without generating the moves.
+     *
+     * @param state the game state
+     */
+    public static boolean hasMoves(GameState state) {
+        int side = state.getSideToMove();
+        int own = state.getMask(side);
+        int empty = ~state.getOccupied() & Bitboards.FULL;
+        if (state.getPhase() == GamePhase.PLACEMENT || state.isFlying(side)) {
+            return empty != 0;
+        }
+        while (own != 0) {
+            if ((Bitboards.adjacentMask(Bitboards.lowestIndex(own)) & empty) != 0) {
+                return true;
+            }
+            own &= own - 1;
+        }
+        return false;
+    }
+}
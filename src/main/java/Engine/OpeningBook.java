@@ -0,0 +1,164 @@
+package main.java.Engine;
+
+import main.java.Utils.GamePhase;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class looks up moves for the placement phase in an opening book built by {@code Tools.BookBuilder}.
+ * The book is a file of entries sorted by the hash of the position, memory mapped and searched with a binary
+ * search. A position can have several moves, one is picked at random in proportion to its weight.
+ * <p>
+ * Positions are stored once for all their symmetric positions, see {@link Symmetry}: the hash is the hash of
+ * the canonical position and the moves are the moves in the canonical position.
+ * <p>
+ * Format: magic, version and the number of entries as ints, then every entry as the position hash (long), the
+ * packed move and its weight (ints), 16 bytes each, all in big endian. Entries with the same hash are next to
+ * each other.
+ */
+
+public final class OpeningBook {
+
+    public static final int MAGIC = 0x4E4D4D42;    // "NMMB"
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 12;
+    public static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Maps the book file
+     *
+     * @param file the book file
+     * @throws IOException if the file cannot be read or is not an opening book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not an opening book");
+            }
+            int size = buffer.getInt(8);
+            if (channel.size() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+                throw new IOException(file + " has the wrong size for " + size + " entries");
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    /**
+     * Writes a book file
+     *
+     * @param file    the file to write
+     * @param entries the weight of every move in the canonical position by the canonical hash
+     */
+    public static void write(Path file, SortedMap<Long, ? extends Map<Integer, Integer>> entries) throws IOException {
+        int size = 0;
+        for (Map<Integer, Integer> moves : entries.values()) {
+            size += moves.size();
+        }
+        try (OutputStream out = Files.newOutputStream(file);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16))) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(size);
+            for (Map.Entry<Long, ? extends Map<Integer, Integer>> entry : entries.entrySet()) {
+                for (Map.Entry<Integer, Integer> move : entry.getValue().entrySet()) {
+                    data.writeLong(entry.getKey());
+                    data.writeInt(move.getKey());
+                    data.writeInt(move.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of entries, moves of all positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Picks a book move for the state, only in the placement phase
+     *
+     * @param state  the game state
+     * @param random picks among the moves of the position by their weights
+     * @return packed move, {@link Move#NONE} if the book has no move for the state
+     */
+    public int chooseMove(GameState state, Random random) {
+        if (state.getPhase() != GamePhase.PLACEMENT) {
+            return Move.NONE;
+        }
+        int symmetry = Symmetry.canonical(state);
+        long key = Symmetry.hash(state, symmetry);
+        int first = firstEntry(key);
+        long total = 0;
+        int end = first;
+        while (end < size && keyAt(end) == key) {
+            total += weightAt(end);
+            end++;
+        }
+        if (total <= 0) {
+            return Move.NONE;
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for (int i = first; i < end; i++) {
+            pick -= weightAt(i);
+            if (pick < 0) {
+                int move = Symmetry.transformMove(Symmetry.inverse(symmetry), moveAt(i));
+                //a different position with the same hash would give a move which is not legal here
+                return state.isLegal(move) ? move : Move.NONE;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Index of the first entry with a hash not less than the key
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int i) {
+        return buffer.getLong(HEADER_BYTES + i * ENTRY_BYTES);
+    }
+
+    private int moveAt(int i) {
+        return buffer.getInt(HEADER_BYTES + i * ENTRY_BYTES + 8);
+    }
+
+    private int weightAt(int i) {
+        return buffer.getInt(HEADER_BYTES + i * ENTRY_BYTES + 12);
+    }
+}
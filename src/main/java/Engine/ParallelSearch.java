@@ -0,0 +1,177 @@
+package main.java.Engine;
+
+import main.java.Utils.ReplacementPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class searches with several threads at once using Lazy SMP: every thread runs its own
+ * {@link AlphaBetaSearch} on the same position and they share one {@link TranspositionTable}, so the threads
+ * pick up each other's results from the table. Every other thread skips the first depth, which makes the
+ * threads drift apart and search different parts of the tree.
+ * <p>
+ * The search ends when the time budget runs out or the first thread finishes the depth, the move of the
+ * thread which finished the deepest iteration is played. A node budget applies to every thread on its own.
+ * <p>
+ * The worker threads are daemon threads kept for the life of the search, {@link #shutdown()} stops them.
+ */
+
+public class ParallelSearch implements SearchEngine {
+
+    private final TranspositionTable table;
+    private final AlphaBetaSearch[] workers;
+    private final ExecutorService executor;
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    private long nodes;
+    private long elapsedNanos;
+    private int completedDepth;
+    private int bestScore;
+
+    /**
+     * Constructor for a search with the number of threads and its own 64 MB transposition table
+     *
+     * @param threads the number of search threads, at least 1
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(64, ReplacementPolicy.DEPTH_PREFERRED));
+    }
+
+    /**
+     * Constructor for a search with the number of threads sharing the transposition table
+     *
+     * @param threads the number of search threads, at least 1
+     * @param table   the transposition table shared by the threads
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Search needs at least 1 thread, was " + threads);
+        }
+        this.table = table;
+        workers = new AlphaBetaSearch[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new AlphaBetaSearch(table, stop);
+        }
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int chooseMove(GameState state, SearchLimits limits) {
+        long start = System.nanoTime();
+        table.newSearch();
+        stop.set(false);
+
+        List<Future<Integer>> results = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            AlphaBetaSearch worker = workers[i];
+            int firstDepth = 1 + i % 2;
+            results.add(executor.submit(() -> {
+                int move = worker.search(state, limits, firstDepth);
+                stop.set(true);
+                return move;
+            }));
+        }
+
+        int bestMove = Move.NONE;
+        int bestDepth = -1;
+        nodes = 0;
+        for (int i = 0; i < workers.length; i++) {
+            int move = await(results.get(i));
+            AlphaBetaSearch worker = workers[i];
+            nodes += worker.getNodes();
+            if (worker.getCompletedDepth() > bestDepth) {
+                bestDepth = worker.getCompletedDepth();
+                bestMove = move;
+                bestScore = worker.getBestScore();
+            }
+        }
+        completedDepth = bestDepth;
+        elapsedNanos = System.nanoTime() - start;
+        return bestMove;
+    }
+
+    private static int await(Future<Integer> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the worker threads, the search cannot be used afterwards
+     */
+    @Override
+    public void shutdown() {
+        stop.set(true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sets the endgame database of all the threads, null to search without it
+     */
+    public void setEndgameDatabase(EndgameDatabase endgames) {
+        for (AlphaBetaSearch worker : workers) {
+            worker.setEndgameDatabase(endgames);
+        }
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Number of positions visited by all the threads in the last search
+     */
+    @Override
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Positions visited per second by all the threads in the last search
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * Wall clock time of the last search in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    /**
+     * Depth of the deepest iteration a thread finished in the last search
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Score of the move chosen by the last search, for the side that was to move
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+}
@@ -0,0 +1,30 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This interface is implemented by the engines an AI player can think with.
+ */
+
+public interface SearchEngine {
+
+    /**
+     * Chooses a move for the side to move. The state is not changed.
+     *
+     * @param state  the game state to choose a move in
+     * @param limits the limits of the search
+     * @return packed move, see {@link Move}, or {@link Move#NONE} if the side to move has no legal move
+     */
+    int chooseMove(GameState state, SearchLimits limits);
+
+    /**
+     * Number of positions visited by the last search, the unit the node budget of {@link SearchLimits} counts
+     */
+    long getNodes();
+
+    /**
+     * Stops the threads of the engine, it cannot search afterwards. Engines without threads have nothing to stop.
+     */
+    default void shutdown() {
+    }
+}
@@ -0,0 +1,89 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class holds the limits of a search started by {@link SearchEngine#chooseMove(GameState, SearchLimits)}.
+ * <p>
+ * The search deepens one ply at a time until the depth is reached or the time or node budget runs out,
+ * whichever comes first. A budget of 0 means no limit.
+ */
+
+public final class SearchLimits {
+
+    /**
+     * Deepest depth searched when only a time or node budget is given
+     */
+    public static final int MAX_DEPTH = 100;
+
+    private final int depth;
+    private final long timeMillis;
+    private final long nodes;
+
+    private SearchLimits(int depth, long timeMillis, long nodes) {
+        this.depth = depth;
+        this.timeMillis = timeMillis;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Limits the search to a fixed depth in plies
+     *
+     * @param depth the depth to search, at least 1
+     */
+    public static SearchLimits depth(int depth) {
+        return of(depth, 0, 0);
+    }
+
+    /**
+     * Limits the search to a time budget, the best move found so far is returned when it runs out
+     *
+     * @param millis the time to think in milliseconds
+     */
+    public static SearchLimits time(long millis) {
+        return of(MAX_DEPTH, millis, 0);
+    }
+
+    /**
+     * Limits the search to a number of visited positions, which unlike time gives the same move on every run
+     *
+     * @param nodes the number of positions to visit
+     */
+    public static SearchLimits nodes(long nodes) {
+        return of(MAX_DEPTH, 0, nodes);
+    }
+
+    /**
+     * Limits the search to a depth, a time budget and a node budget
+     *
+     * @param depth      the depth to search, 1 to {@link #MAX_DEPTH}
+     * @param timeMillis the time to think in milliseconds, 0 for no limit
+     * @param nodes      the number of positions to visit, 0 for no limit
+     */
+    public static SearchLimits of(int depth, long timeMillis, long nodes) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH + ", was " + depth);
+        }
+        if (timeMillis < 0 || nodes < 0) {
+            throw new IllegalArgumentException("Search budgets cannot be negative");
+        }
+        return new SearchLimits(depth, timeMillis, nodes);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits{depth=" + depth + ", timeMillis=" + timeMillis + ", nodes=" + nodes + '}';
+    }
+}
@@ -0,0 +1,147 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class holds the 16 symmetries of the board: the 4 rotations, each with and without a reflection, each
+ * with and without swapping the inner and the outer ring. A symmetry maps mills to mills and neighbours to
+ * neighbours, so positions mapped onto each other have the same value and mapped moves.
+ * <p>
+ * Symmetry s rotates by (s &amp; 3) quarter turns, reflects when bit 2 is set and swaps the rings when bit 3
+ * is set, symmetry 0 is the identity. The permutations of the 24 position indices and the mapping of masks,
+ * one table per byte of the mask, are computed once.
+ * <p>
+ * A position is canonical when no symmetry maps it onto masks which are smaller, compared BLACK first.
+ */
+
+public final class Symmetry {
+
+    public static final int COUNT = 16;
+
+    private static final int[][] PERMUTATION = new int[COUNT][Bitboards.SIZE + 1];
+
+    private static final int[] INVERSE = new int[COUNT];
+
+    // mapped mask of every value of each of the three bytes of a mask
+    private static final int[][][] BYTE_MASKS = new int[COUNT][3][256];
+
+    static {
+        for (int s = 0; s < COUNT; s++) {
+            for (int index = 1; index <= Bitboards.SIZE; index++) {
+                int ring = (index - 1) / 8;
+                int k = (index - 1) % 8;
+                if ((s & 4) != 0) {
+                    k = (8 - k) % 8;
+                }
+                k = (k + 2 * (s & 3)) % 8;
+                if ((s & 8) != 0) {
+                    ring = 2 - ring;
+                }
+                PERMUTATION[s][index] = ring * 8 + k + 1;
+            }
+        }
+        for (int s = 0; s < COUNT; s++) {
+            for (int t = 0; t < COUNT; t++) {
+                boolean identity = true;
+                for (int index = 1; index <= Bitboards.SIZE; index++) {
+                    identity &= PERMUTATION[t][PERMUTATION[s][index]] == index;
+                }
+                if (identity) {
+                    INVERSE[s] = t;
+                }
+            }
+            for (int part = 0; part < 3; part++) {
+                for (int value = 0; value < 256; value++) {
+                    int mask = 0;
+                    for (int b = 0; b < 8; b++) {
+                        if ((value & (1 << b)) != 0) {
+                            mask |= Bitboards.bit(PERMUTATION[s][part * 8 + b + 1]);
+                        }
+                    }
+                    BYTE_MASKS[s][part][value] = mask;
+                }
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    /**
+     * Position index the symmetry maps the index to
+     */
+    public static int transform(int s, int index) {
+        return PERMUTATION[s][index];
+    }
+
+    /**
+     * Mask of the positions the symmetry maps the positions of the mask to
+     */
+    public static int transformMask(int s, int mask) {
+        int[][] bytes = BYTE_MASKS[s];
+        return bytes[0][mask & 0xFF] | bytes[1][(mask >>> 8) & 0xFF] | bytes[2][(mask >>> 16) & 0xFF];
+    }
+
+    /**
+     * Packed move the symmetry maps the move to, see {@link Move}
+     */
+    public static int transformMove(int s, int move) {
+        //index 0, no position, maps to 0
+        int[] permutation = PERMUTATION[s];
+        return Move.withRemoval(Move.slide(permutation[Move.from(move)], permutation[Move.to(move)]),
+                permutation[Move.removal(move)]);
+    }
+
+    /**
+     * The symmetry which undoes the symmetry
+     */
+    public static int inverse(int s) {
+        return INVERSE[s];
+    }
+
+    /**
+     * The symmetry which maps the tokens of both sides to the canonical position, the smallest masks
+     *
+     * @param first  tokens compared first
+     * @param second tokens compared when the first are equal
+     */
+    public static int canonical(int first, int second) {
+        int best = 0;
+        long bestKey = ((long) first << Bitboards.SIZE) | second;
+        for (int s = 1; s < COUNT; s++) {
+            long key = ((long) transformMask(s, first) << Bitboards.SIZE) | transformMask(s, second);
+            if (key < bestKey) {
+                bestKey = key;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The symmetry which maps the state to its canonical position
+     */
+    public static int canonical(GameState state) {
+        return canonical(state.getMask(GameState.BLACK), state.getMask(GameState.WHITE));
+    }
+
+    /**
+     * Hash of the canonical position of the state
+     */
+    public static long canonicalHash(GameState state) {
+        return hash(state, canonical(state));
+    }
+
+    /**
+     * Hash of the state mapped by the symmetry, the same for all the positions of a symmetry class
+     * when used with {@link #canonical(GameState)}
+     */
+    public static long hash(GameState state, int s) {
+        long hash = state.getHash();
+        for (int side = 0; side < 2; side++) {
+            int mask = state.getMask(side);
+            hash ^= Zobrist.pieces(side, mask) ^ Zobrist.pieces(side, transformMask(s, mask));
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,218 @@
+package main.java.Engine;
+
+import main.java.Utils.ReplacementPolicy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class is a fixed size transposition table keyed by the {@link Zobrist} hash of a {@link GameState}.
+ * <p>
+ * An entry is two longs in primitive arrays: the packed data (best move, score, depth, bound and search age)
+ * and the hash XOR the data. The table is shared by search threads without locks, a probe only accepts an
+ * entry whose stored key XOR data gives back the probed hash, so an entry torn by two threads writing the
+ * same slot at once reads as a miss instead of returning the data of another position.
+ * <p>
+ * Scores are stored as given, the search has to make mate scores relative to the node before storing them.
+ */
+
+public final class TranspositionTable {
+
+    /**
+     * Bound of an entry, the score is exact, a lower bound (fail high) or an upper bound (fail low)
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /**
+     * Largest depth that can be stored
+     */
+    public static final int MAX_DEPTH = 0xFF;
+
+    // layout of the packed data, the move is stored in the low bits
+    private static final int SCORE_SHIFT = 15;
+    private static final int DEPTH_SHIFT = 31;
+    private static final int BOUND_SHIFT = 39;
+    private static final int AGE_SHIFT = 41;
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int indexMask;
+    private final ReplacementPolicy policy;
+
+    private volatile int age;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Constructor for a table using at most the given size, rounded down to a power of two number of entries
+     *
+     * @param sizeMb the size of the table in megabytes, at least 1
+     * @param policy when a store overwrites the entry in its slot
+     */
+    public TranspositionTable(int sizeMb, ReplacementPolicy policy) {
+        if (sizeMb < 1) {
+            throw new IllegalArgumentException("Transposition table size must be at least 1 MB, was " + sizeMb);
+        }
+        long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+        int capacity = (int) Math.min(entries, 1 << 30);
+        keys = new long[capacity];
+        data = new long[capacity];
+        indexMask = capacity - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Looks up the entry of the position.
+     *
+     * @param hash the hash of the position
+     * @return the packed entry, 0 if the position is not in the table. Read it with the static accessors.
+     */
+    public long probe(long hash) {
+        int slot = (int) hash & indexMask;
+        long entry = data[slot];
+        long key = keys[slot];
+        if (entry != 0 && (key ^ entry) == hash) {
+            hits.increment();
+            return entry;
+        }
+        if (entry != 0) {
+            collisions.increment();
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * Stores the result of a search of the position, subject to the replacement policy.
+     *
+     * @param hash  the hash of the position
+     * @param move  the best move found, {@link Move#NONE} if there is none
+     * @param score the score of the position
+     * @param depth the depth searched, clamped to {@link #MAX_DEPTH}
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public void store(long hash, int move, int score, int depth, int bound) {
+        int slot = (int) hash & indexMask;
+        int searchAge = age;
+        if (policy == ReplacementPolicy.DEPTH_PREFERRED) {
+            long old = data[slot];
+            if (old != 0 && (keys[slot] ^ old) != hash && depth(old) > depth && age(old) == searchAge) {
+                return;
+            }
+            if (old != 0 && (keys[slot] ^ old) == hash && move == Move.NONE) {
+                //keep the best move of an earlier search of the same position
+                move = move(old);
+            }
+        }
+        long entry = (move & 0x7FFFL)
+                | (long) ((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)) & 0xFFFF) << SCORE_SHIFT
+                | (long) Math.max(0, Math.min(MAX_DEPTH, depth)) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) searchAge << AGE_SHIFT;
+        keys[slot] = hash ^ entry;
+        data[slot] = entry;
+    }
+
+    /**
+     * Starts a new search, entries of earlier searches are replaced first by {@link ReplacementPolicy#DEPTH_PREFERRED}
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        age = 0;
+        resetStats();
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0x7FFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT & 3);
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> AGE_SHIFT & 0xFF);
+    }
+
+    /**
+     * Number of entries the table holds
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public ReplacementPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Number of probes which found the position
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of probes which did not find the position, including the collisions
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of probes which found the slot taken by another position
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Per mille of the first 1000 slots in use, an estimate of how full the table is
+     */
+    public int getHashFull() {
+        int used = 0;
+        int sample = Math.min(1000, data.length);
+        for (int slot = 0; slot < sample; slot++) {
+            if (data[slot] != 0) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "TranspositionTable{entries=" + keys.length + ", policy=" + policy + ", hits=" + getHits()
+                + ", misses=" + getMisses() + ", collisions=" + getCollisions() + ", hashfull=" + getHashFull() + '}';
+    }
+}
@@ -0,0 +1,102 @@
+package main.java.Engine;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class holds the random keys used to hash a {@link GameState} into 64 bits.
+ * <p>
+ * The hash is the XOR of a key for every token on the board, a key for the number of tokens left to place of
+ * each side, a key when WHITE is to move and a key when a removal is pending. The keys are generated from a
+ * fixed seed, so the same position has the same hash in every run and can be stored, e.g. in a game database.
+ */
+
+public final class Zobrist {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private static final long[][] PIECE = new long[2][Bitboards.SIZE + 1];
+
+    private static final long[][] HAND = new long[2][GameState.PIECES_PER_PLAYER + 1];
+
+    /**
+     * Key of WHITE to move
+     */
+    public static final long SIDE;
+
+    /**
+     * Key of a removal pending after a mill
+     */
+    public static final long PENDING;
+
+    static {
+        long seed = SEED;
+        for (int side = 0; side < 2; side++) {
+            for (int index = 1; index <= Bitboards.SIZE; index++) {
+                PIECE[side][index] = splitMix(seed += SEED);
+            }
+            for (int count = 0; count <= GameState.PIECES_PER_PLAYER; count++) {
+                HAND[side][count] = splitMix(seed += SEED);
+            }
+        }
+        SIDE = splitMix(seed += SEED);
+        PENDING = splitMix(seed + SEED);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Key of a token of the side at the position index
+     */
+    public static long piece(int side, int index) {
+        return PIECE[side][index];
+    }
+
+    /**
+     * Key of the side having count tokens left to place
+     */
+    public static long hand(int side, int count) {
+        return HAND[side][count];
+    }
+
+    /**
+     * XOR of the keys of tokens of the side at all the positions of the mask
+     */
+    public static long pieces(int side, int mask) {
+        long hash = 0;
+        while (mask != 0) {
+            hash ^= PIECE[side][Bitboards.lowestIndex(mask)];
+            mask &= mask - 1;
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the hash of the state from scratch, the state keeps the same hash up to date incrementally
+     *
+     * @param state the game state
+     */
+    public static long compute(GameState state) {
+        long hash = 0;
+        for (int side = 0; side < 2; side++) {
+            hash ^= pieces(side, state.getMask(side));
+            hash ^= HAND[side][state.getPiecesInHand(side)];
+        }
+        if (state.getSideToMove() == GameState.WHITE) {
+            hash ^= SIDE;
+        }
+        if (state.isRemovalPending()) {
+            hash ^= PENDING;
+        }
+        return hash;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads a counter into a well mixed 64 bit key
+     */
+    private static long splitMix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,89 @@
+package main.java.Others;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class saves the game to a file after every move without blocking the caller. The game is encoded with
+ * {@link GameRecord#encode(GameManager)} on the calling thread, which takes microseconds, and written by a daemon
+ * thread. When moves come faster than the file is written only the latest game is written, older saves waiting
+ * to be written are dropped.
+ */
+
+public final class Autosaver {
+
+    private final Path file;
+    private final ExecutorService executor;
+    // the latest encoded game not written yet, null if there is none
+    private final AtomicReference<byte[]> pending = new AtomicReference<>();
+
+    /**
+     * Constructor
+     *
+     * @param file the file the game is saved to, replaced by every save
+     */
+    public Autosaver(Path file) {
+        this.file = file;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Saves the game of the manager in the background
+     *
+     * @param manager the game to save, only read on the calling thread
+     */
+    public void save(GameManager manager) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (pending.getAndSet(GameRecord.encode(manager)) == null) {
+            try {
+                executor.execute(this::writePending);
+            } catch (RejectedExecutionException e) {
+                //closed since the check above, saves after close are dropped
+                pending.set(null);
+            }
+        }
+    }
+
+    private void writePending() {
+        byte[] data = pending.getAndSet(null);
+        if (data == null) {
+            return;
+        }
+        try {
+            GameRecord.write(file, data);
+        } catch (IOException e) {
+            System.out.println("Could not save the game to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the save still waiting, if any, and stops the writer thread. Later saves are dropped.
+     *
+     * @param timeoutMillis how long to wait for the write at most
+     */
+    public void close(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package main.java.Others;
 
+import main.java.Engine.Bitboards;
+import main.java.Engine.GameState;
 import main.java.Utils.Colour;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleObjectProperty;
 
 import java.util.*;
 
@@ -12,31 +12,43 @@ import java.util.*;
  * This class is used to represent the board in the game.
  * It contains the positions of the board and the tokens placed on the board.
  * It also contains the logic to validate the placement of the tokens.
+ * <p>
+ * The occupancy is stored in the bitboards of a {@link GameState}, the board is a Position based view on it.
  */
 
 public class Board {
 
+    private static final Colour[] COLOURS = Colour.values();
+
     private Map<Position, Integer> boardPositions;
-    private Map<Position, Token> occupiedPosition;
 
-    private ObjectProperty<Position> tokenPlacedPosition;
+    private final GameState state;
 
     private Position oldPosition;
 
-    private Map<Integer, List<Token>> millSets;
 
-    private int millId; // Mill id is used to identify the mill formation
+    /**
+     * Constructor for the board class which initializes the board positions and an empty game state.
+     */
+    public Board() {
+        this(new GameState());
+    }
 
+    /**
+     * Constructor for a board which is a view on the occupancy of the game state.
+     *
+     * @param state the game state holding the occupancy bitboards
+     */
+    public Board(GameState state) {
+        boardPositions = Position.getAllPositions();
+        this.state = state;
+    }
 
     /**
-     * Constructor for the board class which initializes the board positions and the occupied positions.
+     * Getter to get the game state the board is a view on
      */
-    public Board() {
-        boardPositions = new Position().getAllPositions();
-        occupiedPosition = new HashMap<>();
-        tokenPlacedPosition = new SimpleObjectProperty<>();
-        millSets = new HashMap<>();
-        millId = 0;
+    public GameState getState() {
+        return state;
     }
 
     /**
@@ -68,45 +80,74 @@ public class Board {
     }
 
     /**
-     * A Map of all the positions on the board which are occupied by the tokens
+     * A Map of all the positions on the board which are occupied by the tokens.
+     * The map is a snapshot built from the bitboards, changes to it are not reflected on the board.
      */
     public Map<Position, Token> getOccupiedPosition() {
+        Map<Position, Token> occupiedPosition = new HashMap<>();
+        int mask = getOccupiedMask();
+        while (mask != 0) {
+            int index = Bitboards.lowestIndex(mask);
+            mask &= mask - 1;
+            occupiedPosition.put(Position.of(index), getToken(index));
+        }
         return occupiedPosition;
     }
 
     /**
-     * Setter to set the occupied positions
+     * Setter to set the occupied positions, rebuilds the bitboards from the given map
      */
     public void setOccupiedPosition(Map<Position, Token> occupiedPosition) {
-        this.occupiedPosition = occupiedPosition;
+        for (int index = 1; index <= Bitboards.SIZE; index++) {
+            state.clearPiece(index);
+        }
+        for (Map.Entry<Position, Token> entry : occupiedPosition.entrySet()) {
+            state.setPiece(BoardLayout.indexOf(entry.getKey()), entry.getValue().getColour().ordinal());
+        }
     }
 
     /**
-     * This method is used to place a token on the board
+     * Bitboard of the positions occupied by the given colour
+     *
+     * @param colour the colour of the tokens
      */
-    public Position getTokenPlacedPosition() {
-        return tokenPlacedPosition.get();
+    public int getColourMask(Colour colour) {
+        return state.getMask(colour.ordinal());
     }
 
-    public ObjectProperty<Position> tokenPlacedPositionProperty() {
-        return tokenPlacedPosition;
+    /**
+     * Bitboard of all the occupied positions
+     */
+    public int getOccupiedMask() {
+        return state.getOccupied();
     }
 
     /**
+     * Returns a token for the position, null if the position is empty
      *
-     * @param tokenPlacedPosition
+     * @param position the position on the board
      */
-    public void setTokenPlacedPosition(Position tokenPlacedPosition) {
-        this.tokenPlacedPosition.set(tokenPlacedPosition);
+    public Token getToken(Position position) {
+        return getToken(BoardLayout.indexOf(position));
     }
 
     /**
-     * MillId is used to identify the mill formations on the board. Mill id are always unique and increasing.
-     * It it used to determine the tokens that are part of the mill.
+     * Returns a token for the position index (1..24), null if the position is empty
      *
+     * @param index the position index on the board
      */
-    public void increaseMillId() {
-        this.millId = this.millId + 1;
+    public Token getToken(int index) {
+        int side = state.sideAt(index);
+        return side < 0 ? null : new Token(COLOURS[side], Position.of(index));
+    }
+
+    /**
+     * Checks whether the position is occupied by any token
+     *
+     * @param position the position on the board
+     */
+    public boolean isOccupied(Position position) {
+        return state.sideAt(BoardLayout.indexOf(position)) >= 0;
     }
 
     /**
@@ -115,83 +156,44 @@ public class Board {
      * @param position the position on the board where the token is at
      */
     public List<Position> getValidPositions(Position position) {
-        Integer p1 = boardPositions.get(position);
-        List<Position> validPositions = new ArrayList<>();
-
-        if (p1 < 8 && p1 % 2 == 0) {
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 8));
-        } else if (p1 == 8) {
-            validPositions.add(getKeyByValue(boardPositions, p1 - 7));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 8));
-        } else if (p1 < 16 && p1 % 2 == 0) {
-            validPositions.add(getKeyByValue(boardPositions, p1 - 8));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 8));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-        }else if (p1 == 16) {
-            validPositions.add(getKeyByValue(boardPositions, p1 - 7));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 8));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 8));
-        }else if (p1 < 24 && p1 % 2 == 0) {
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 8));
-        }else if (p1 == 24 ) {
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 7));
-            validPositions.add(getKeyByValue(boardPositions, p1 - 8));}
-        else if (p1 ==1 || p1 == 9 || p1 == 17) {
-            validPositions.add(getKeyByValue(boardPositions, p1 + 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 7));
-        }else{
-            validPositions.add(getKeyByValue(boardPositions, p1 - 1));
-            validPositions.add(getKeyByValue(boardPositions, p1 + 1));
-        }
+        return BoardLayout.adjacentPositions(BoardLayout.indexOf(position));
+    }
 
-        return validPositions;
+    /**
+     * Mask of the empty positions a token at the position index can slide to
+     *
+     * @param index the position index on the board where the token is at
+     */
+    public int getFreeAdjacentMask(int index) {
+        return Bitboards.adjacentMask(index) & ~getOccupiedMask();
     }
 
     /**
-     * This method is used to place a new token on the board
-     * In PLACEMENT phase, new tokens are created and placed on the board
+     * This method is used to place a new token on the board, without going through the rules of the game state
      *
      * @param position the position on the board where the token is to be placed
      * @param colour   the colour of the token to be placed
      */
     //
     public void placeNewToken(Position position, Colour colour) {
-        if (!occupiedPosition.containsKey(position)) {
-            occupiedPosition.put(position, new Token(colour, position));
+        if (!isOccupied(position)) {
+            state.setPiece(BoardLayout.indexOf(position), colour.ordinal());
         } else {
             System.out.print("POSITION ALREADY HAVE TOKEN");
         }
     }
 
     /**
-     * This method is used to move a token from one position to another
-     * In MOVEMENT phase, tokens are moved from one position to another
+     * This method is used to move a token from the old position to another, without going through the rules
+     * of the game state
      *
      * @param newPosition the position on the board where the token is to be placed
      */
     public void moveToken(Position newPosition) {
-        //get the token
-        Token token = occupiedPosition.get(oldPosition);
-
-        //if token part of mill, moving cause mill to change
-        if (token.getIsPartOfMillCount() > 0) {
-            reduceIsMillCount(token);
-        }
-
-        //remove old position from list
-        occupiedPosition.remove(oldPosition);
-
-        //update token position and place back into list
-        token.setPosition(newPosition);
-        occupiedPosition.put(newPosition, token);
+        int from = BoardLayout.indexOf(oldPosition);
+        int side = state.sideAt(from);
+        state.clearPiece(from);
+        state.setPiece(BoardLayout.indexOf(newPosition), side);
     }
 
     /**
@@ -200,60 +202,7 @@ public class Board {
      * @param newPosition the position on the board where the token is to be placed
      */
     public List<Position> getNeighbours(Position newPosition) {
-        Integer num1 = boardPositions.get(newPosition);
-        List<Position> neighbours = new ArrayList<>();
-        Position p2;
-        Position p3;
-        Position p4;
-        Position p5;
-
-        if (num1 % 2 == 0) {
-            //ring 1
-            if (num1 < 9) {
-                p2 = getKeyByValue(boardPositions, (num1 + 8));
-                p3 = getKeyByValue(boardPositions, (num1 + 16));
-                p4 = getKeyByValue(boardPositions, (num1 - 1));
-                p5 = getKeyByValue(boardPositions, (num1 + 1));
-            }
-            //ring 2
-            else if (num1 < 17) {
-                p2 = getKeyByValue(boardPositions, (num1 - 8));
-                p3 = getKeyByValue(boardPositions, (num1 + 8));
-                p4 = getKeyByValue(boardPositions, (num1 - 1));
-                p5 = getKeyByValue(boardPositions, (num1 + 1));
-            }
-            //ring 3
-            else {
-                p2 = getKeyByValue(boardPositions, (num1 - 8));
-                p3 = getKeyByValue(boardPositions, (num1 - 16));
-                p4 = getKeyByValue(boardPositions, (num1 - 1));
-                p5 = getKeyByValue(boardPositions, (num1 + 1));
-            }
-
-            if (num1 % 8 == 0) {
-                p5 = getKeyByValue(boardPositions, (num1 - 7));
-            }
-        } else {
-            if (num1 == 1 || num1 == 9 || num1 == 17) {
-                p2 = getKeyByValue(boardPositions, (num1 + 7));
-                p3 = getKeyByValue(boardPositions, (num1 + 6));
-            } else {
-                p2 = getKeyByValue(boardPositions, (num1 - 1));
-                p3 = getKeyByValue(boardPositions, (num1 - 2));
-            }
-            p4 = getKeyByValue(boardPositions, (num1 + 1));
-            p5 = getKeyByValue(boardPositions, (num1 + 2));
-
-            if (num1 == 7 || num1 == 15 || num1 == 23) {
-                p5 = getKeyByValue(boardPositions, (num1 - 6));
-            }
-        }
-
-        neighbours.add(p2);
-        neighbours.add(p3);
-        neighbours.add(p4);
-        neighbours.add(p5);
-        return neighbours;
+        return BoardLayout.millNeighbours(BoardLayout.indexOf(newPosition));
     }
 
     /**
@@ -262,118 +211,59 @@ public class Board {
      * @param newPosition the position on the board where the token is to be placed
      */
     public boolean checkIfMill(Position newPosition) {
-        List<Position> millNeighbours = new ArrayList<>();
-        List<Position> neighbours = getNeighbours(newPosition);
-        Token token = occupiedPosition.get(newPosition);
-
-        int count = 0;
-        for (int i = 0; i < 2; i++) {
-            count = 0;
-            for (int j = i; j < i + 2; j++) {
-                Token neighbourToken = occupiedPosition.get(neighbours.get(i + j));
-                if (neighbourToken != null) {
-                    if (occupiedPosition.get(neighbours.get(i + j)).getColour() == token.getColour()) {
-                        count++;
-                        if (count == 2) {
-                            increaseMillId();
-
-                            Position p1 = neighbours.get(i + j - 1);
-                            Position p2 = neighbours.get(i + j);
-
-                            millNeighbours.add(p1);
-                            millNeighbours.add(p2);
-
-                            //update the token mill count
-                            occupiedPosition.get(p1).increaseIsPartOfMillCount();
-                            occupiedPosition.get(p2).increaseIsPartOfMillCount();
-                            token.increaseIsPartOfMillCount();
-
-
-                            //update the mill id of a token
-                            occupiedPosition.get(p1).updateMillId(millId);
-                            occupiedPosition.get(p2).updateMillId(millId);
-                            token.updateMillId(millId);
-
-                            //put the new mill to the hashmap
-                            millSets.put(millId, Arrays.asList(token, occupiedPosition.get(p1),
-                                    occupiedPosition.get(p2)));
-                        }
-                    }
-                }
-            }
+        int index = BoardLayout.indexOf(newPosition);
+        int side = state.sideAt(index);
+        if (side < 0) {
+            return false;
         }
+        return Bitboards.isInMill(index, state.getMask(side));
+    }
 
-        return millNeighbours.size() >= 2;
+    /**
+     * Check if the token at the position is part of any mill, derived from the current occupancy
+     *
+     * @param tokenPosition the position on the board where the token is at
+     */
+    public boolean isPartOfMill(Position tokenPosition) {
+        return checkIfMill(tokenPosition);
+    }
+
+    /**
+     * Mask of the tokens of the colour which are part of at least one mill
+     *
+     * @param colour the colour of the tokens
+     */
+    public int getMillMask(Colour colour) {
+        return Bitboards.millMembers(getColourMask(colour));
     }
 
     /**
      * Check if a token can be removed or not
-     * Cannot be removed if part of any mill
+     * Cannot be removed if part of any mill, unless all the tokens of that colour are part of a mill
      *
      * @param tokenPosition the position on the board where the token is to be removed
      */
-    public boolean canBeRemoved(Position tokenPosition, Boolean useReduceIsMillCount) {
-        System.out.println(occupiedPosition);
-        System.out.println("tokenPosition" + tokenPosition.toString());
-
-        //loop for checking if any token can be removed, edge case where there exist some token that can be removed
-        for (Token token : occupiedPosition.values()){
-            System.out.println(token);
-            if (occupiedPosition.get(tokenPosition)==null){
-                return false;
-            }
-            if (token.getIsPartOfMillCount()==0 && token.getColour() == occupiedPosition.get(tokenPosition).getColour())  {
-                Token t = occupiedPosition.get(tokenPosition);
-                return t.getIsPartOfMillCount() == 0;
-            }
-        }
-//        canBeRemoved1(tokenPosition);
-        // for cases where force removal is enforced
-        if (useReduceIsMillCount) {
-            reduceIsMillCount(occupiedPosition.get(tokenPosition));
-        }
-        return true;
-
+    public boolean canBeRemoved(Position tokenPosition) {
+        int index = BoardLayout.indexOf(tokenPosition);
+        int side = state.sideAt(index);
+        return side >= 0 && state.canRemove(side, index);
     }
 
 
     /**
-     * Method removes token from occupiedPosition HashMap
+     * Method clears the token from the occupancy bitboards, without going through the rules of the game state
      * Returns true or false based on if it can be removed
      *
      * @param tokenPosition the position on the board where the token is to be removed
      */
     public boolean removeToken(Position tokenPosition) {
-        if (canBeRemoved(tokenPosition, true)) {
-            occupiedPosition.remove(tokenPosition);
+        if (canBeRemoved(tokenPosition)) {
+            state.clearPiece(BoardLayout.indexOf(tokenPosition));
             return true;
         }
         return false;
     }
 
-    /**
-     * reduces the is part of mill count for a set of tokens
-     * resets the mill id if no longer part of the mill
-     *
-     * @param token the token which is part of mill that has been moved
-     */
-    public void reduceIsMillCount(Token token) {
-        int[] ids = token.getMillId().clone();
-        List<Token> tokens = new ArrayList<>();
-
-        if (millSets.get(ids[0]) != null) {
-            tokens.addAll(millSets.get(ids[0]));
-        }
-        if (millSets.get(ids[1]) != null) {
-            tokens.addAll(millSets.get(ids[1]));
-        }
-        for (Token t : tokens) {
-            t.decreaseIsPartOfMillCount();
-            t.resetMillId(ids[0]);
-            t.resetMillId(ids[1]);
-        }
-    }
-
 
     //https://stackoverflow.com/questions/1383797/java-hashmap-how-to-get-key-from-value
     /**
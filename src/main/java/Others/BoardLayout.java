@@ -0,0 +1,91 @@
+package main.java.Others;
+
+import main.java.Engine.Bitboards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class holds the static layout of the board as {@link Position} lists, built once from the masks in
+ * {@link Bitboards}.
+ * <p>
+ * The tables are immutable and give O(1) index to Position and Position to index lookups through the
+ * shared {@link Position} instances.
+ */
+
+public final class BoardLayout {
+
+    private static final List<List<Position>> ADJACENT_POSITIONS = new ArrayList<>(Bitboards.SIZE + 1);
+
+    private static final List<List<Position>> MILL_NEIGHBOURS = new ArrayList<>(Bitboards.SIZE + 1);
+
+    static {
+        ADJACENT_POSITIONS.add(Collections.emptyList());
+        MILL_NEIGHBOURS.add(Collections.emptyList());
+        for (int index = 1; index <= Bitboards.SIZE; index++) {
+            ADJACENT_POSITIONS.add(Collections.unmodifiableList(toPositions(Bitboards.adjacentMask(index))));
+
+            //the two mill lines through the position, same order as the original getNeighbours
+            List<Position> millNeighbours = toPositions(Bitboards.millThrough(index, 0) & ~Bitboards.bit(index));
+            millNeighbours.addAll(toPositions(Bitboards.millThrough(index, 1) & ~Bitboards.bit(index)));
+            MILL_NEIGHBOURS.add(Collections.unmodifiableList(millNeighbours));
+        }
+    }
+
+    private BoardLayout() {
+    }
+
+    /**
+     * Positions of the set bits of a mask, in index order
+     *
+     * @param mask the positions as a mask
+     */
+    public static List<Position> toPositions(int mask) {
+        List<Position> positions = new ArrayList<>(Integer.bitCount(mask));
+        while (mask != 0) {
+            positions.add(Position.of(Bitboards.lowestIndex(mask)));
+            mask &= mask - 1;
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the position index (1..24) of the position, 0 if it is not a point on the board
+     *
+     * @param position the position on the board
+     */
+    public static int indexOf(Position position) {
+        return position == null ? 0 : position.getIndex();
+    }
+
+    /**
+     * Returns the position of a position index (1..24)
+     *
+     * @param index the position index on the board
+     */
+    public static Position positionOf(int index) {
+        return Position.of(index);
+    }
+
+    /**
+     * Unmodifiable list of the positions a token at the index can slide to
+     *
+     * @param index the position index on the board
+     */
+    public static List<Position> adjacentPositions(int index) {
+        return ADJACENT_POSITIONS.get(index);
+    }
+
+    /**
+     * Unmodifiable list of the other positions on the two mill lines through the index.
+     * The first two positions form one line and the last two positions form the other line.
+     *
+     * @param index the position index on the board
+     */
+    public static List<Position> millNeighbours(int index) {
+        return MILL_NEIGHBOURS.get(index);
+    }
+}
@@ -0,0 +1,378 @@
+package main.java.Others;
+
+import main.java.Engine.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class writes every change of a game to an append-only journal file, so the last game can be rebuilt after
+ * a crash. The {@link GameManager} the journal is attached to appends a record for every move, undo and redo
+ * and for a new game.
+ * <p>
+ * Appending only adds the record to a buffer in memory. A daemon thread writes the buffered records with one write
+ * and one fsync every sync interval (group commit), so a crash loses at most the moves of the last interval.
+ * <p>
+ * Opening a journal replays it into a game to find the last game. Replay stops at the first record that is torn,
+ * fails its checksum or is not legal in the game, the records after it are dropped. The writer thread then
+ * replaces the file with a journal of only the last game. It does the same whenever it writes a new game, as
+ * every record before it is obsolete, so the file does not grow over a long session and a restart only replays
+ * the game in progress.
+ * <p>
+ * Format, big endian: magic and version (ints), then records of 8 bytes: the type in the high half and the packed
+ * move in the low half of an int, and the CRC-32 of these 4 bytes (int).
+ */
+
+public final class GameJournal {
+
+    public static final int MAGIC = 0x4E4D4D4A;     // "NMMJ"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 8;
+
+    // record types
+    private static final int NEW_GAME = 1;
+    private static final int MOVE = 2;
+    private static final int UNDO = 3;
+    private static final int REDO = 4;
+
+    private final Path file;
+    private final ScheduledExecutorService writer;
+    // the last game of the journal when it was opened, null once attached or if there was none
+    private GameRecord recovered;
+    private FileChannel channel;
+
+    // records appended and not written yet, guarded by this
+    private int[] buffer = new int[64];
+    private int size;
+    // records being written, only used by the writer thread
+    private int[] writing = new int[64];
+    private ByteBuffer bytes = ByteBuffer.allocate(64 * RECORD_BYTES);
+
+    private GameJournal(Path file, GameRecord recovered, long syncMillis) {
+        this.file = file;
+        this.recovered = recovered;
+        //the journal is replaced with the records of the last game when it is opened
+        int[] compacted = recovered == null ? new int[0] : records(recovered.getMoves(), recovered.getRedoMoves());
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(() -> rewrite(compacted, 0, compacted.length));
+        writer.scheduleWithFixedDelay(this::commit, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a journal and reads the last game from it, the file is created if it does not exist
+     *
+     * @param file       the journal file
+     * @param syncMillis the interval of the group commits in milliseconds
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static GameJournal open(Path file, long syncMillis) throws IOException {
+        if (syncMillis < 1) {
+            throw new IllegalArgumentException("Sync interval must be at least 1 ms, was " + syncMillis);
+        }
+        GameRecord recovered = null;
+        if (Files.exists(file)) {
+            recovered = replay(file, Files.readAllBytes(file));
+        }
+        return new GameJournal(file, recovered, syncMillis);
+    }
+
+    /**
+     * Attaches the journal to a new game manager. The first manager attached gets the last game of the journal,
+     * unless that game is over, later managers start a new game in the journal.
+     *
+     * @param manager a manager at the start of a new game
+     * @return true if the last game of the journal was restored into the manager
+     */
+    public boolean attach(GameManager manager) {
+        GameRecord game = recovered;
+        recovered = null;
+        boolean restored = game != null && game.getMoves().length > 0 && !isOver(game);
+        if (restored) {
+            //the compacted journal already holds the game
+            manager.restore(game);
+            manager.setJournal(this);
+        } else {
+            manager.setJournal(this);
+            appendGame(manager.getState(), manager.getRedoMoves());
+        }
+        return restored;
+    }
+
+    void appendMove(int move) {
+        append(MOVE, move);
+    }
+
+    void appendUndo() {
+        append(UNDO, 0);
+    }
+
+    void appendRedo() {
+        append(REDO, 0);
+    }
+
+    /**
+     * Appends a new game with the moves of the state and the moves that can be redone
+     */
+    void appendGame(GameState state, int[] redoMoves) {
+        int[] records = records(movesOf(state), redoMoves);
+        synchronized (this) {
+            for (int record : records) {
+                add(record);
+            }
+        }
+    }
+
+    private synchronized void append(int type, int move) {
+        add(type << 16 | move);
+    }
+
+    private void add(int record) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+        }
+        buffer[size++] = record;
+    }
+
+    /**
+     * Writes the records appended since the last commit and forces them to the disk. If they hold a new game the
+     * journal is replaced with the records from the last new game on instead.
+     */
+    private void commit() {
+        int count;
+        synchronized (this) {
+            count = size;
+            if (count == 0 || channel == null) {
+                return;
+            }
+            int[] swap = writing.length >= buffer.length ? writing : new int[buffer.length];
+            writing = buffer;
+            buffer = swap;
+            size = 0;
+        }
+        int newGame = lastNewGame(writing, count);
+        if (newGame >= 0) {
+            rewrite(writing, newGame, count);
+            return;
+        }
+        try {
+            if (bytes.capacity() < count * RECORD_BYTES) {
+                bytes = ByteBuffer.allocate(count * RECORD_BYTES);
+            }
+            bytes.clear();
+            for (int i = 0; i < count; i++) {
+                putRecord(bytes, writing[i]);
+            }
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            System.out.println("Could not write the journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Index of the last new game record, -1 if there is none
+     */
+    private static int lastNewGame(int[] records, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (records[i] >>> 16 == NEW_GAME) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the journal with a journal of the records from one index to another and opens it for appending.
+     * The new journal is written to a temporary file that then replaces the journal, so a crash keeps either one.
+     */
+    private void rewrite(int[] records, int from, int to) {
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + (to - from) * RECORD_BYTES);
+        data.putInt(MAGIC);
+        data.putInt(VERSION);
+        for (int i = from; i < to; i++) {
+            putRecord(data, records[i]);
+        }
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                data.flip();
+                while (data.hasRemaining()) {
+                    out.write(data);
+                }
+                out.force(true);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            FileChannel append = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            FileChannel replaced;
+            synchronized (this) {
+                replaced = channel;
+                channel = append;
+            }
+            if (replaced != null) {
+                replaced.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Could not replace the journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the records still buffered, forces them to the disk and closes the file
+     *
+     * @param timeoutMillis how long to wait for the write at most
+     */
+    public void close(long timeoutMillis) {
+        if (writer.isShutdown()) {
+            return;
+        }
+        writer.execute(this::commit);
+        writer.shutdown();
+        try {
+            if (writer.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS) && channel != null) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Could not close the journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records of a new game with the moves and the moves that can be redone: the moves and the redo moves in the
+     * order they are played, then an undo for every redo move
+     */
+    private static int[] records(int[] moves, int[] redoMoves) {
+        int[] records = new int[1 + moves.length + 2 * redoMoves.length];
+        int count = 0;
+        records[count++] = NEW_GAME << 16;
+        for (int move : moves) {
+            records[count++] = MOVE << 16 | move;
+        }
+        for (int i = redoMoves.length - 1; i >= 0; i--) {
+            records[count++] = MOVE << 16 | redoMoves[i];
+        }
+        for (int i = 0; i < redoMoves.length; i++) {
+            records[count++] = UNDO << 16;
+        }
+        return records;
+    }
+
+    /**
+     * Replays the records of a journal, the last game or null if the journal has no game
+     */
+    private static GameRecord replay(Path file, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a game journal");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + " has journal version " + version + ", expected " + VERSION);
+        }
+        GameManager game = null;
+        int records = 0;
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int record = buffer.getInt();
+            if (buffer.getInt() != crc(record) || !replay(game, record)) {
+                break;
+            }
+            if (record >>> 16 == NEW_GAME) {
+                game = new GameManager();
+            }
+            records++;
+        }
+        int dropped = (data.length - HEADER_BYTES) / RECORD_BYTES - records;
+        if (dropped > 0) {
+            System.out.println("Journal " + file + ": dropped " + dropped + " records from the first bad record on");
+        } else if ((data.length - HEADER_BYTES) % RECORD_BYTES != 0) {
+            System.out.println("Journal " + file + ": dropped a torn record at the end");
+        }
+        return game == null ? null : new GameRecord(movesOf(game.getState()), game.getRedoMoves());
+    }
+
+    /**
+     * Replays a record into the game, false if it is not valid there
+     */
+    private static boolean replay(GameManager game, int record) {
+        int type = record >>> 16;
+        int move = record & 0xFFFF;
+        if (type == NEW_GAME) {
+            return move == 0;
+        }
+        if (game == null) {
+            return false;
+        }
+        switch (type) {
+            case MOVE:
+                if (!game.getState().isLegal(move)) {
+                    return false;
+                }
+                game.apply(move);
+                return true;
+            case UNDO:
+                return move == 0 && game.undo();
+            case REDO:
+                return move == 0 && game.redo();
+            default:
+                return false;
+        }
+    }
+
+    private static int[] movesOf(GameState state) {
+        int[] moves = new int[state.getPly()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = state.getMove(ply);
+        }
+        return moves;
+    }
+
+    private static boolean isOver(GameRecord game) {
+        GameState state = new GameState();
+        for (int move : game.getMoves()) {
+            state.makeMove(move);
+        }
+        return state.isGameOver();
+    }
+
+    private static void putRecord(ByteBuffer buffer, int record) {
+        buffer.putInt(record);
+        buffer.putInt(crc(record));
+    }
+
+    private static int crc(int record) {
+        CRC32 crc = new CRC32();
+        crc.update(record >>> 24);
+        crc.update(record >>> 16);
+        crc.update(record >>> 8);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+}
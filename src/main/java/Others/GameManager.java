@@ -1,40 +1,42 @@
 package main.java.Others;
 
+import main.java.Engine.GameState;
+import main.java.Engine.Move;
+import main.java.Engine.MoveGenerator;
 import main.java.Player.HumanPlayer;
 import main.java.Utils.Colour;
 import main.java.Utils.GamePhase;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
 
-import java.util.List;
+import java.util.Arrays;
 
 
 /**
  * @author Priyesh
  * <p>
  * This class is used to manage the game.
- * It also contains the methods to change the game phase and the player turn.
+ * It is a thin adapter from the Position based calls of the UI to the headless rules core in {@link GameState},
+ * and keeps the player counters in sync with it.
  */
 
 public class GameManager {
 
-    private final int MAXTOKEN = 18;
-    private GamePhase gamePhase;
+    private final GameState state;
 
     private HumanPlayer player1;
     private HumanPlayer player2;
 
     private Board board;
 
-    private int totalTokenPlaced;
+    // records every change of the game, null if the game is not journaled
+    private GameJournal journal;
 
-    private boolean isMill;
-
-   private BooleanProperty player2TurnProperty;
+    // moves taken back by undo, in the order they are redone (last one first)
+    private int[] redoMoves = new int[64];
+    private int redoSize;
 
     public GameManager() {
-        board = new Board();
-        player2TurnProperty = new SimpleBooleanProperty();
+        state = new GameState();
+        board = new Board(state);
         startGame();
     }
 
@@ -42,53 +44,35 @@ public class GameManager {
         return board;
     }
 
-    public void setBoard(Board board) {
-        this.board = board;
+    /**
+     * Getter to get the headless game state driven by this manager
+     */
+    public GameState getState() {
+        return state;
     }
 
-    public HumanPlayer getPlayer1() {
-        return player1;
+    /**
+     * Getter to get the 64 bit hash of the current game state, see {@link GameState#getHash()}
+     */
+    public long getPositionHash() {
+        return state.getHash();
     }
 
-    public void setPlayer1(HumanPlayer player1) {
-        this.player1 = player1;
+    public HumanPlayer getPlayer1() {
+        return player1;
     }
 
     public HumanPlayer getPlayer2() {
         return player2;
     }
 
-    public void setPlayer2(HumanPlayer player2) {
-        this.player2 = player2;
-    }
-
 
     /**
-     * * This method is used to check if a mill is formed.
+     * * This method is used to check if a mill is formed and an opponent token has to be removed.
      * @return
      */
     public boolean isMill() {
-        return isMill;
-    }
-
-    /**
-     * This method is used to set if a mill is formed.
-     * @param mill
-     */
-    public void setMill(boolean mill) {
-        isMill = mill;
-    }
-
-    public boolean getPlayer2TurnProperty() {
-        return player2TurnProperty.get();
-    }
-
-    public BooleanProperty player2TurnProperty() {
-        return player2TurnProperty;
-    }
-
-    public void setPlayer2TurnProperty(boolean player2TurnProperty) {
-        this.player2TurnProperty.set(player2TurnProperty);
+        return state.isRemovalPending();
     }
 
     /**
@@ -98,10 +82,12 @@ public class GameManager {
         player1 = new HumanPlayer("Player 1", Colour.BLACK);
         player2 = new HumanPlayer("Player 2", Colour.WHITE);
 
-        gamePhase = GamePhase.PLACEMENT;
-        player1.activateTurn();
-        player2.deactivateTurn();
-
+        state.reset();
+        redoSize = 0;
+        syncPlayers();
+        if (journal != null) {
+            journal.appendGame(state, getRedoMoves());
+        }
     }
 
     /**
@@ -110,72 +96,133 @@ public class GameManager {
      * gamePhase: PLACEMENT, MOVEMENT, GAMEOVER
      */
     public GamePhase getGamePhase() {
-        return gamePhase;
+        return state.getPhase();
     }
 
+
     /**
-     * This method is used to set the current game phase.
-     *
-     * gamePhase: PLACEMENT, MOVEMENT, GAMEOVER
+     * Getter to get token numbers of tokens placed on the board.
      */
-    public void setGamePhase(GamePhase gamephase) {
-        this.gamePhase = gamePhase;
+    public int getTotalTokenPlaced() {
+        return 2 * GameState.PIECES_PER_PLAYER - state.getPiecesInHand(GameState.BLACK)
+                - state.getPiecesInHand(GameState.WHITE);
     }
 
+    /**
+     * This method is used to get the colour of the player whose turn it is.
+     * While a removal is pending it is the player who formed the mill.
+     */
+    public Colour colorOnTurn() {
+        return state.getColourToMove();
+    }
 
     /**
-     * Getter to get token numbers of tokens on the board.
+     * This method is used to get the colour of the player whose turn it is not.
+     * While a removal is pending it is the colour of the tokens that can be removed.
      */
-    public int getTotalTokenPlaced() {
-        return totalTokenPlaced;
+    public Colour isOtherTurn(){
+        return colorOnTurn() == Colour.BLACK ? Colour.WHITE : Colour.BLACK;
     }
 
     /**
-     * Setter to set token numbers of tokens on the board.
+     * Applies a move to the game state and updates the players.
+     *
+     * @param move packed move, see {@link Move}
+     * @throws IllegalArgumentException if the move is not legal
      */
-    public void setTotalTokenPlaced(int totalTokenPlaced) {
-        this.totalTokenPlaced = totalTokenPlaced;
+    public void apply(int move) {
+        state.apply(move);
+        redoSize = 0;
+        syncPlayers();
+        if (journal != null) {
+            journal.appendMove(move);
+        }
     }
 
+    /**
+     * Takes back the last move, it can be redone until a new move is applied.
+     *
+     * @return true if a move was taken back, false if there is no move to take back
+     */
+    public boolean undo() {
+        if (state.getPly() == 0) {
+            return false;
+        }
+        if (redoSize == redoMoves.length) {
+            redoMoves = Arrays.copyOf(redoMoves, redoSize * 2);
+        }
+        redoMoves[redoSize++] = state.unmakeMove();
+        syncPlayers();
+        if (journal != null) {
+            journal.appendUndo();
+        }
+        return true;
+    }
 
     /**
-     * This method is used to change player turn
+     * Redoes the last move taken back by {@link #undo()}.
+     *
+     * @return true if a move was redone, false if there is no move to redo
      */
-    public void changePlayerTurn() {
-        if (player1.isTurn()) {
-            player1.deactivateTurn();
-            player2.activateTurn();
-        } else {
-            player2.deactivateTurn();
-            player1.activateTurn();
+    public boolean redo() {
+        if (redoSize == 0) {
+            return false;
+        }
+        state.apply(redoMoves[--redoSize]);
+        syncPlayers();
+        if (journal != null) {
+            journal.appendRedo();
         }
+        return true;
     }
 
     /**
-     * This method is used when the game is over to deactivate the player turn and set the game phase to GAMEOVER.
-     * @return
+     * Getter to get the moves taken back by {@link #undo()} that can still be redone, the next one to redo last
      */
-    public void gameOver() {
-        gamePhase = GamePhase.GAMEOVER;
-        player1.deactivateTurn();
-        player2.deactivateTurn();
+    public int[] getRedoMoves() {
+        return Arrays.copyOf(redoMoves, redoSize);
+    }
 
+    /**
+     * Restores a saved game: replays its moves from the start and sets the moves that can be redone.
+     *
+     * @param record the saved game, its moves are checked when it is decoded
+     */
+    public void restore(GameRecord record) {
+        state.reset();
+        for (int move : record.getMoves()) {
+            state.apply(move);
+        }
+        int[] redo = record.getRedoMoves();
+        redoMoves = Arrays.copyOf(redo, Math.max(redo.length, 64));
+        redoSize = redo.length;
+        syncPlayers();
+        if (journal != null) {
+            journal.appendGame(state, redo);
+        }
     }
 
     /**
-     * This method is used to get the colour of the player whose turn it is.
+     * Sets the journal every change of the game is appended to, see {@link GameJournal#attach(GameManager)}
      */
-    public Colour colorOnTurn() {
-        return player1.isTurn() ? player1.getColour() : player2.getColour();
+    void setJournal(GameJournal journal) {
+        this.journal = journal;
     }
 
     /**
-     * This method is used to get the colour of the player whose turn it is not.
+     * Copies the counters and the turn of the game state to the players.
      */
-    public Colour isOtherTurn(){
-        return player1.isTurn() ? player2.getColour() : player1.getColour();
+    private void syncPlayers() {
+        syncPlayer(player1);
+        syncPlayer(player2);
     }
 
+    private void syncPlayer(HumanPlayer player) {
+        int side = player.getColour().ordinal();
+        player.setTotalPiecesOnBoard(state.getPiecesOnBoard(side));
+        player.setTotalPiecesToPlace(state.getPiecesInHand(side));
+        player.setTurn(!state.isGameOver() && state.getSideToMove() == side);
+    }
 
 
     /**
@@ -184,30 +231,18 @@ public class GameManager {
      * @param position the position to place the token.
      */
     public void placeToken(Position position) {
-        Colour colour = colorOnTurn();
-        board.placeNewToken(position, colour);
-        totalTokenPlaced++;
-        // Update the number of tokens placed by the player
-        if (player1.isTurn()) {
-            player1.tilePlaced();
-        } else {
-            player2.tilePlaced();
-        }
+        apply(Move.place(position.getIndex()));
 
         System.out.println("player 1:" + player1.getTotalPiecesOnBoard() + " player 2:" + player2.getTotalPiecesOnBoard());
-
-        if (totalTokenPlaced == MAXTOKEN) {
-            gamePhase = GamePhase.MOVEMENT;
-        }
     }
 
     /**
-     * This method is used to move a token on the board.
+     * This method is used to move the selected token on the board.
      *
      * @param position the position to move the token to.
      */
     public void moveToken(Position position) {
-        board.moveToken(position);
+        apply(Move.slide(board.getOldPosition().getIndex(), position.getIndex()));
     }
 
     /**
@@ -220,28 +255,20 @@ public class GameManager {
     }
 
     /**
-     * This method is to validate the placement of the token using the logic in {@code Others.Board}
+     * This method is to validate the placement of the token using the rules in {@code Engine.GameState}
      *
      * @param newPosition the position to be validated
      * @return true if the token can be placed at the position, false otherwise.
      */
     public boolean validateTokenPlacement(Position newPosition) {
-
-        if (player1.isTurn() && player1.getTotalPiecesOnBoard() == 3 && player1.getTotalPiecesToPlace() == 0 ||
-                player2.isTurn() && player2.getTotalPiecesOnBoard() == 3 && player2.getTotalPiecesToPlace() == 0) {
-            return true;
-        }
-
-        if (gamePhase == GamePhase.MOVEMENT) {
-            List<Position> possiblePositions = board.getValidPositions(board.getOldPosition());
-            for (Position position : possiblePositions) {
-                if (newPosition.equals(position)) {
-                    return true;
-                }
-            }
+        if (newPosition == null) {
             return false;
         }
-        return true;
+        if (state.getPhase() == GamePhase.MOVEMENT) {
+            Position oldPosition = board.getOldPosition();
+            return oldPosition != null && state.isLegal(Move.slide(oldPosition.getIndex(), newPosition.getIndex()));
+        }
+        return state.isLegal(Move.place(newPosition.getIndex()));
     }
 
     /**
@@ -250,36 +277,24 @@ public class GameManager {
      * winning condition: opponent only has 2 tokens left
      */
     public int checkWin() {
-        if (player1.getTotalPiecesToPlace() == 0 && player1.getTotalPiecesOnBoard() < 3) {
-            return 2;   // player 2 wins
-        } else if (player2.getTotalPiecesToPlace() == 0 && player2.getTotalPiecesOnBoard() < 3) {
+        int result = state.getResult();
+        if (result == GameState.BLACK) {
             return 1;   // player 1 wins
+        } else if (result == GameState.WHITE) {
+            return 2;   // player 2 wins
         }
         return 0;
     }
 
     /**
-     * This method is used to check if a mill is formed at the position.
-     * @param tokenPosition the position of the token to check.
-     * @return true if a mill is formed, false otherwise.
-     */
-    public void updateMillStatus(Position tokenPosition) {
-        isMill = board.checkIfMill(tokenPosition);
-    }
-
-    /**
-     *  Remove the token at the position
+     *  Remove the opponent token at the position after a mill
      * @param tokenPosition
-     * @return
+     * @return true if the token was removed, false if it cannot be removed
      */
     public boolean removeToken(Position tokenPosition) {
-
-        if (board.removeToken(tokenPosition)) {
-            if (player1.isTurn()) {
-                player1.removeToken();
-            } else {
-                player2.removeToken();
-            }
+        int move = Move.remove(tokenPosition.getIndex());
+        if (state.isLegal(move)) {
+            apply(move);
             System.out.println("player 1:" + player1.getTotalPiecesOnBoard() + " player 2:" + player2.getTotalPiecesOnBoard());
             return true;
         }
@@ -287,30 +302,16 @@ public class GameManager {
     }
 
     /**
-     * This method is used to check if any move is possible for the player.
+     * This method is used to check if any move is possible for the player, using the move generator.
      * @return true if any move is possible, false otherwise.
      *
      * false will trigger a game draw.
      */
     public boolean anyMovePossible() {
-
-        if (player1.isTurn() && player1.getTotalPiecesOnBoard() == 3 && player1.getTotalPiecesToPlace() == 0 ||
-                player2.isTurn() && player2.getTotalPiecesOnBoard() == 3 && player2.getTotalPiecesToPlace() == 0) {
-            return true;
-        }
-
-        for (Position position : board.getOccupiedPosition().keySet()) {
-            if (colorOnTurn() == board.getOccupiedPosition().get(position).getColour()) {
-                List<Position> possibleMoves = board.getValidPositions(position);
-
-                for (Position possibleMove : possibleMoves) {
-                    if (board.getOccupiedPosition().get(possibleMove) == null) {
-                        return true;
-                    }
-                }
-            }
+        if (state.getResult() == GameState.RESULT_DRAW) {
+            return false;
         }
-        return false;
+        return MoveGenerator.hasMoves(state);
     }
 
 }
@@ -0,0 +1,214 @@
+package main.java.Others;
+
+import main.java.Engine.Bitboards;
+import main.java.Engine.GameState;
+import main.java.Engine.Move;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class saves and loads a game in progress in a compact binary format: the moves made since the start, the
+ * moves that can be redone and a snapshot of the state after the moves. Loading replays the moves with the rules
+ * of {@link GameState}, so a file can only give a game that could have been played, and checks the replayed state
+ * against the snapshot.
+ * <p>
+ * Format, big endian: magic (int), version (byte), the tokens of BLACK and WHITE as 24 bit masks, the tokens in
+ * hand of BLACK and WHITE as two 4 bit counts in a byte, a byte with the side to move (bit 0), a pending removal
+ * (bit 1), the phase (bits 2-3) and the result + 1 (bits 4-5), the number of moves and of redo moves (ints), the
+ * packed moves (shorts, see {@link Move}) and the CRC-32 of all the bytes before it (int). A game of 40 moves
+ * takes 105 bytes.
+ */
+
+public final class GameRecord {
+
+    public static final int MAGIC = 0x4E4D4D53;     // "NMMS"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 21;
+    private static final int CRC_BYTES = 4;
+
+    private final int[] moves;
+    private final int[] redoMoves;
+
+    GameRecord(int[] moves, int[] redoMoves) {
+        this.moves = moves;
+        this.redoMoves = redoMoves;
+    }
+
+    /**
+     * The moves made since the start of the game, in order
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * The moves that can be redone, the next one to redo last, see {@link GameManager#getRedoMoves()}
+     */
+    public int[] getRedoMoves() {
+        return redoMoves.clone();
+    }
+
+    /**
+     * Encodes the game of the manager, only reads it so it is cheap enough to run after every move
+     *
+     * @param manager the game to encode
+     * @return the bytes of the record
+     */
+    public static byte[] encode(GameManager manager) {
+        GameState state = manager.getState();
+        int[] redo = manager.getRedoMoves();
+        int plies = state.getPly();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * (plies + redo.length) + CRC_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        putMask(buffer, state.getMask(GameState.BLACK));
+        putMask(buffer, state.getMask(GameState.WHITE));
+        buffer.put((byte) (state.getPiecesInHand(GameState.BLACK) << 4 | state.getPiecesInHand(GameState.WHITE)));
+        buffer.put((byte) (state.getSideToMove()
+                | (state.isRemovalPending() ? 2 : 0)
+                | state.getPhase().ordinal() << 2
+                | (state.getResult() + 1) << 4));
+        buffer.putInt(plies);
+        buffer.putInt(redo.length);
+        for (int ply = 0; ply < plies; ply++) {
+            buffer.putShort((short) state.getMove(ply));
+        }
+        for (int move : redo) {
+            buffer.putShort((short) move);
+        }
+        buffer.putInt(crc(buffer.array(), buffer.position()));
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a record and checks it by replaying its moves
+     *
+     * @param data the bytes of the record
+     * @return the record, to restore with {@link GameManager#restore(GameRecord)}
+     * @throws IOException if the bytes are not a record of a legal game
+     */
+    public static GameRecord decode(byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a saved game");
+            }
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Saved game version " + version + " is not supported, expected " + VERSION);
+            }
+            if (buffer.getInt(data.length - CRC_BYTES) != crc(data, data.length - CRC_BYTES)) {
+                throw new IOException("Saved game is corrupt, the checksum does not match");
+            }
+            int black = getMask(buffer);
+            int white = getMask(buffer);
+            int inHand = buffer.get() & 0xFF;
+            int flags = buffer.get() & 0xFF;
+            long plies = buffer.getInt() & 0xFFFFFFFFL;
+            long redoPlies = buffer.getInt() & 0xFFFFFFFFL;
+            if (data.length != HEADER_BYTES + 2 * (plies + redoPlies) + CRC_BYTES) {
+                throw new IOException("Saved game has the wrong size for " + plies + " moves");
+            }
+            int[] moves = new int[(int) plies];
+            int[] redoMoves = new int[(int) redoPlies];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = buffer.getShort() & 0xFFFF;
+            }
+            for (int i = 0; i < redoMoves.length; i++) {
+                redoMoves[i] = buffer.getShort() & 0xFFFF;
+            }
+
+            GameState state = new GameState();
+            replay(state, moves);
+            if (state.getMask(GameState.BLACK) != black || state.getMask(GameState.WHITE) != white
+                    || state.getPiecesInHand(GameState.BLACK) != inHand >>> 4
+                    || state.getPiecesInHand(GameState.WHITE) != (inHand & 0xF)
+                    || state.getSideToMove() != (flags & 1)
+                    || state.isRemovalPending() != ((flags & 2) != 0)
+                    || state.getPhase().ordinal() != (flags >>> 2 & 3)
+                    || state.getResult() != (flags >>> 4 & 3) - 1) {
+                throw new IOException("Saved game does not match its moves");
+            }
+            //the redo moves have to be legal after the moves too, the next one to redo is the last
+            int[] redone = redoMoves.clone();
+            for (int i = 0; i < redone.length / 2; i++) {
+                int move = redone[i];
+                redone[i] = redone[redone.length - 1 - i];
+                redone[redone.length - 1 - i] = move;
+            }
+            replay(state, redone);
+            return new GameRecord(moves, redoMoves);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Saved game is truncated", e);
+        }
+    }
+
+    /**
+     * Writes the bytes of a record to a file. The bytes go to a temporary file first which then replaces the file,
+     * so a crash while saving keeps the previous save.
+     *
+     * @param file the file to write
+     * @param data the bytes of the record, see {@link #encode(GameManager)}
+     */
+    public static void write(Path file, byte[] data) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, data);
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads and decodes a record from a file
+     *
+     * @param file the saved game
+     * @throws IOException if the file cannot be read or is not a saved game
+     */
+    public static GameRecord read(Path file) throws IOException {
+        return decode(Files.readAllBytes(file));
+    }
+
+    private static void replay(GameState state, int[] moves) throws IOException {
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (!state.isLegal(moves[ply])) {
+                throw new IOException("Saved game has an illegal move " + Move.toString(moves[ply]) + " at ply " + ply);
+            }
+            state.makeMove(moves[ply]);
+        }
+    }
+
+    private static void putMask(ByteBuffer buffer, int mask) {
+        buffer.put((byte) (mask >>> 16));
+        buffer.putShort((short) mask);
+    }
+
+    private static int getMask(ByteBuffer buffer) throws IOException {
+        int mask = (buffer.get() & 0xFF) << 16 | buffer.getShort() & 0xFFFF;
+        if ((mask & ~Bitboards.FULL) != 0) {
+            throw new IOException("Saved game has tokens off the board");
+        }
+        return mask;
+    }
+
+    private static int crc(byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+}
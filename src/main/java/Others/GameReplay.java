@@ -0,0 +1,126 @@
+package main.java.Others;
+
+import main.java.Engine.GameState;
+import main.java.Engine.Move;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class replays a recorded game and jumps to any ply of it. A snapshot of the state (see
+ * {@link GameState#snapshot()}) is kept every interval plies, a seek restores the nearest snapshot before the
+ * ply and makes the moves from there, or moves on or takes back from the current ply when that is closer. A seek
+ * makes or takes back at most interval moves, however long the game is.
+ * <p>
+ * Every seek returns the positions whose token changed, so a view only has to redraw those.
+ */
+
+public final class GameReplay {
+
+    /**
+     * Plies between two snapshots by default
+     */
+    public static final int DEFAULT_INTERVAL = 16;
+
+    private final int[] moves;
+    private final int interval;
+    // snapshot of the state at every multiple of the interval
+    private final long[] snapshots;
+
+    private final GameState state = new GameState();
+    // ply of the snapshot the state was restored from, the state made its moves since then
+    private int base;
+
+    /**
+     * Constructor for the replay of the moves of a saved game
+     *
+     * @param record the saved game, its redo moves are not replayed
+     */
+    public GameReplay(GameRecord record) {
+        this(record.getMoves(), DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Constructor, plays the moves once to take the snapshots and starts at ply 0
+     *
+     * @param moves    the moves of the game from the start, packed, see {@link Move}
+     * @param interval plies between two snapshots
+     * @throws IllegalArgumentException if a move is not legal
+     */
+    public GameReplay(int[] moves, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1, was " + interval);
+        }
+        this.moves = moves.clone();
+        this.interval = interval;
+        snapshots = new long[moves.length / interval + 1];
+        for (int ply = 0; ply <= moves.length; ply++) {
+            if (ply % interval == 0) {
+                snapshots[ply / interval] = state.snapshot();
+            }
+            if (ply < moves.length) {
+                if (!state.isLegal(moves[ply])) {
+                    throw new IllegalArgumentException("Illegal move " + Move.toString(moves[ply]) + " at ply " + ply);
+                }
+                state.makeMove(moves[ply]);
+            }
+        }
+        state.reset();
+        base = 0;
+    }
+
+    /**
+     * Number of moves of the game, the plies go from 0 to this number
+     */
+    public int size() {
+        return moves.length;
+    }
+
+    /**
+     * The ply the replay is at
+     */
+    public int getPly() {
+        return base + state.getPly();
+    }
+
+    /**
+     * The move made at the ply, 0 being the first move of the game
+     */
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * The state at the current ply, only to be read, its undo stack only goes back to the last snapshot restored
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * Jumps to the ply
+     *
+     * @param ply the ply from 0, the start, to {@link #size()}, the end of the game
+     * @return mask of the positions whose token changed, see {@link main.java.Engine.Bitboards}
+     */
+    public int seek(int ply) {
+        if (ply < 0 || ply > moves.length) {
+            throw new IllegalArgumentException("No ply " + ply + ", the game has " + moves.length + " moves");
+        }
+        int black = state.getMask(GameState.BLACK);
+        int white = state.getMask(GameState.WHITE);
+        int current = getPly();
+        int snapshot = ply / interval * interval;
+        if (ply < current && ply >= base && current - ply <= ply - snapshot) {
+            while (getPly() > ply) {
+                state.unmakeMove();
+            }
+        } else if (ply < current || current < snapshot) {
+            state.restore(snapshots[ply / interval]);
+            base = snapshot;
+        }
+        while (getPly() < ply) {
+            state.makeMove(moves[getPly()]);
+        }
+        return (black ^ state.getMask(GameState.BLACK)) | (white ^ state.getMask(GameState.WHITE));
+    }
+}
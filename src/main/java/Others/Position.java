@@ -1,8 +1,8 @@
 package main.java.Others;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * @author Priyesh
@@ -11,14 +11,44 @@ import java.util.Objects;
  *
  * It contains the x and y coordinates of the position.
  *
- * It contains methods related to the position of the board.
+ * There is a closed set of 24 immutable positions, one for each point of the board. They are created once
+ * and shared through {@link #of(int, int)} and {@link #of(int)}, so two positions are equal only if they
+ * are the same instance.
  *
  */
 
-public class Position {
+public final class Position {
 
-    private int x;
-    private int y;
+    private static final int GRID_SIZE = 7;
+
+    // (x, y) of the positions in the order of their index 1..24, ring 1 (inner) to ring 3 (outer)
+    private static final int[][] COORDINATES = {
+            {2, 2}, {3, 2}, {4, 2}, {4, 3}, {4, 4}, {3, 4}, {2, 4}, {2, 3},
+            {1, 1}, {3, 1}, {5, 1}, {5, 3}, {5, 5}, {3, 5}, {1, 5}, {1, 3},
+            {0, 0}, {3, 0}, {6, 0}, {6, 3}, {6, 6}, {3, 6}, {0, 6}, {0, 3}
+    };
+
+    private static final Position[] BY_INDEX = new Position[COORDINATES.length + 1];
+
+    private static final Position[][] BY_COORDINATE = new Position[GRID_SIZE][GRID_SIZE];
+
+    private static final Map<Position, Integer> ALL_POSITIONS;
+
+    static {
+        Map<Position, Integer> allPositions = new LinkedHashMap<>();
+        for (int i = 0; i < COORDINATES.length; i++) {
+            Position position = new Position(COORDINATES[i][0], COORDINATES[i][1], i + 1);
+            BY_INDEX[i + 1] = position;
+            BY_COORDINATE[position.x][position.y] = position;
+            allPositions.put(position, position.index);
+        }
+        ALL_POSITIONS = Collections.unmodifiableMap(allPositions);
+    }
+
+    private final int x;
+    private final int y;
+    private final int index;
+    private final int hash;
 
     /**
      * Constructor for a position object which sets the position in the form (x, y)
@@ -27,13 +57,38 @@ public class Position {
      *            position in the x-direction(horizontal)
      * @param y
      *            position in the y-direction (vertical)
+     * @param index
+     *            position index on the board, 1..24
      */
-    public Position(int x, int y) {
+    private Position(int x, int y, int index) {
         this.x = x;
         this.y = y;
+        this.index = index;
+        this.hash = index;
     }
 
-    public Position() {
+    /**
+     * Returns the shared position at the column and row of the grid pane.
+     *
+     * @param x column of the grid pane
+     * @param y row of the grid pane
+     * @return position, null if (x, y) is not a point on the board
+     */
+    public static Position of(int x, int y) {
+        if (x < 0 || y < 0 || x >= GRID_SIZE || y >= GRID_SIZE) {
+            return null;
+        }
+        return BY_COORDINATE[x][y];
+    }
+
+    /**
+     * Returns the shared position of a position index.
+     *
+     * @param index position index on the board, 1..24
+     * @return position
+     */
+    public static Position of(int index) {
+        return BY_INDEX[index];
     }
 
     /**
@@ -45,16 +100,17 @@ public class Position {
         return x;
     }
 
-    public void setX(int x) {
-        this.x = x;
-    }
-
     public int getY() {
         return y;
     }
 
-    public void setY(int y) {
-        this.y = y;
+    /**
+     * This method is used to get the position index on the board, 1..24
+     *
+     * @return index
+     */
+    public int getIndex() {
+        return index;
     }
 
     @Override
@@ -66,89 +122,28 @@ public class Position {
     }
 
     /**
-     * Helper to validate the position
+     * Helper to validate the position, positions are shared so equality is identity
      */
     @Override
     public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Position position = (Position) o;
-        return x == position.x && y == position.y;
+        return this == o;
     }
 
     /**
-     * Helper for hashing
+     * Helper for hashing, precomputed when the position is created
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return hash;
     }
 
     /**
      * This method is used to get all the valid positions of the board according to the column and row of grid pane.
      *
-     * @return allPositions
+     * @return allPositions, an unmodifiable map of every position to its position index
      */
-    public Map<Position, Integer> getAllPositions(){
-        Map<Position, Integer> allPositions = new HashMap<>();
-
-        Position p22 = new Position(2,2);
-        Position p32 = new Position(3,2);
-        Position p42 = new Position(4,2);
-        Position p43 = new Position(4,3);
-        Position p44 = new Position(4,4);
-        Position p34 = new Position(3,4);
-        Position p24 = new Position(2,4);
-        Position p23 = new Position(2,3);
-
-        Position p11 = new Position(1,1);
-        Position p31 = new Position(3,1);
-        Position p51 = new Position(5,1);
-        Position p53 = new Position(5,3);
-        Position p55 = new Position(5,5);
-        Position p35 = new Position(3,5);
-        Position p15 = new Position(1,5);
-        Position p13 = new Position(1,3);
-
-        Position p00 = new Position(0,0);
-        Position p30 = new Position(3,0);
-        Position p60 = new Position(6,0);
-        Position p63 = new Position(6,3);
-        Position p66 = new Position(6,6);
-        Position p36 = new Position(3,6);
-        Position p06 = new Position(0,6);
-        Position p03 = new Position(0,3);
-
-
-        allPositions.put(p22, 1);
-        allPositions.put(p32, 2);
-        allPositions.put(p42, 3);
-        allPositions.put(p43, 4);
-        allPositions.put(p44, 5);
-        allPositions.put(p34, 6);
-        allPositions.put(p24, 7);
-        allPositions.put(p23, 8);
-
-        allPositions.put(p11, 9);
-        allPositions.put(p31, 10);
-        allPositions.put(p51, 11);
-        allPositions.put(p53, 12);
-        allPositions.put(p55, 13);
-        allPositions.put(p35, 14);
-        allPositions.put(p15, 15);
-        allPositions.put(p13, 16);
-
-        allPositions.put(p00, 17);
-        allPositions.put(p30, 18);
-        allPositions.put(p60, 19);
-        allPositions.put(p63, 20);
-        allPositions.put(p66, 21);
-        allPositions.put(p36, 22);
-        allPositions.put(p06, 23);
-        allPositions.put(p03, 24);
-
-
-        return allPositions;
+    public static Map<Position, Integer> getAllPositions(){
+        return ALL_POSITIONS;
     }
 
 }
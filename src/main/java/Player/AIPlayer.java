@@ -1,20 +1,72 @@
 package main.java.Player;
 
+import main.java.Engine.AlphaBetaSearch;
+import main.java.Engine.GameState;
+import main.java.Engine.Move;
+import main.java.Engine.OpeningBook;
+import main.java.Engine.SearchEngine;
+import main.java.Engine.SearchLimits;
 import main.java.Utils.Colour;
 
+import java.util.Random;
+
 /**
  * @author Priyesh
  *
  * This class is used to represent the AI player in the game.
+ * The moves are chosen by a {@link SearchEngine}, an alpha-beta search unless another engine is given.
+ * With an {@link OpeningBook} set, placement moves found in the book are played without searching.
  *
  */
 
 
 public class AIPlayer extends Player{
 
+    private final SearchEngine engine;
+    private final Random random = new Random();
+
+    private OpeningBook book;
+
     public AIPlayer(String playerName, Colour colour) {
+        this(playerName, colour, new AlphaBetaSearch());
+    }
+
+    public AIPlayer(String playerName, Colour colour, SearchEngine engine) {
         super(colour);
+        this.engine = engine;
     }
 
+    /**
+     * This method is used to choose the AI move in the game state, the state is not changed.
+     * A move closing a mill carries the opponent token it removes.
+     *
+     * @param state  the game state, the AI colour has to be on turn
+     * @param limits the limits of the search
+     * @return packed move, see {@code Engine.Move}
+     */
+    public int chooseMove(GameState state, SearchLimits limits) {
+        if (book != null) {
+            int move = book.chooseMove(state, random);
+            if (move != Move.NONE) {
+                return move;
+            }
+        }
+        return engine.chooseMove(state, limits);
+    }
+
+    /**
+     * This method is used to set the opening book of the AI, null to search every move.
+     * @param book
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
 
+    /**
+     * This method is used to get the engine the AI thinks with.
+     * @return
+     */
+    public SearchEngine getEngine() {
+        return engine;
+    }
 }
@@ -0,0 +1,101 @@
+package main.java.Tools;
+
+import main.java.Engine.AlphaBetaSearch;
+import main.java.Engine.GameState;
+import main.java.Engine.MoveGenerator;
+import main.java.Engine.OpeningBook;
+import main.java.Engine.SearchLimits;
+import main.java.Engine.Symmetry;
+import main.java.Utils.GamePhase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class builds an {@link OpeningBook} from self-play. Every game starts with a few random placements to
+ * vary the openings, then both sides place with a search to a fixed depth until the placement phase is over.
+ * Every searched move is counted for its position, the count is its weight in the book. Symmetric positions
+ * are counted together under their canonical position. Moves seen fewer times than the minimum count are left
+ * out.
+ * <p>
+ * The random placements use a fixed seed, the same arguments build the same book.
+ * <p>
+ * Usage: BookBuilder &lt;book file&gt; [games, default 200] [depth, default 6] [random placements, default 2]
+ * [min count, default 1]
+ */
+
+public class BookBuilder {
+
+    private static final long SEED = 20240601L;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: BookBuilder <book file> [games] [depth] [random placements] [min count]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int randomPlies = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int minCount = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        long start = System.currentTimeMillis();
+        SortedMap<Long, Map<Integer, Integer>> entries = build(games, depth, randomPlies, new Random(SEED));
+        int positions = entries.size();
+        prune(entries, minCount);
+        OpeningBook.write(file, entries);
+        System.out.println("games=" + games + " depth=" + depth + " positions=" + positions + " kept="
+                + entries.size() + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Plays the placement phase of the games and counts the searched move of every position
+     *
+     * @return the count of every move in the canonical position by the canonical hash
+     */
+    static SortedMap<Long, Map<Integer, Integer>> build(int games, int depth, int randomPlies, Random random) {
+        SortedMap<Long, Map<Integer, Integer>> entries = new TreeMap<>();
+        AlphaBetaSearch search = new AlphaBetaSearch();
+        SearchLimits limits = SearchLimits.depth(depth);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < games; game++) {
+            GameState state = new GameState();
+            while (state.getPhase() == GamePhase.PLACEMENT) {
+                int move;
+                if (state.getPly() < randomPlies) {
+                    move = moves[random.nextInt(MoveGenerator.generate(state, moves))];
+                } else {
+                    move = search.chooseMove(state, limits);
+                    int symmetry = Symmetry.canonical(state);
+                    entries.computeIfAbsent(Symmetry.hash(state, symmetry), key -> new HashMap<>())
+                            .merge(Symmetry.transformMove(symmetry, move), 1, Integer::sum);
+                }
+                state.apply(move);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Removes the moves counted fewer times than the minimum, and positions left without a move
+     */
+    static void prune(SortedMap<Long, Map<Integer, Integer>> entries, int minCount) {
+        Iterator<Map<Integer, Integer>> positions = entries.values().iterator();
+        while (positions.hasNext()) {
+            Map<Integer, Integer> moves = positions.next();
+            moves.values().removeIf(count -> count < minCount);
+            if (moves.isEmpty()) {
+                positions.remove();
+            }
+        }
+    }
+}
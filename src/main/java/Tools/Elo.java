@@ -0,0 +1,105 @@
+package main.java.Tools;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class converts match results into Elo differences. The score of a match is the share of points of the
+ * first engine, a win is 1 point and a draw half a point, and relates to the Elo difference d as
+ * score = 1 / (1 + 10^(-d / 400)).
+ * <p>
+ * It also holds the log likelihood ratio used by {@link Sprt} to test two Elo hypotheses.
+ */
+
+public final class Elo {
+
+    // two sided 95% interval of the normal distribution
+    private static final double Z_95 = 1.959964;
+
+    // pairs added to every pair score before the first game, so a few pairs with the same score do not give a
+    // variance near 0 and an overconfident log likelihood ratio
+    private static final double PRIOR_PAIRS = 0.5;
+
+    private Elo() {
+    }
+
+    /**
+     * Share of points of the first engine
+     */
+    public static double score(long wins, long draws, long losses) {
+        long games = wins + draws + losses;
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * Elo difference of a score, infinite for a score of 0 or 1
+     */
+    public static double difference(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Expected score of an Elo difference
+     */
+    public static double expectedScore(double difference) {
+        return 1 / (1 + Math.pow(10, -difference / 400));
+    }
+
+    /**
+     * Log likelihood ratio of the hypotheses elo1 against elo0 for paired games, using the normal approximation
+     * of the generalized SPRT over the pair scores. The mean and variance are taken over the pair counts with
+     * half a pair added to each of the 5 scores, so a run where every pair scores the same, e.g. only draws, has a
+     * variance that shrinks with the number of pairs instead of 0 and moves slowly towards a bound.
+     *
+     * @param pairs number of pairs by their score for the first engine in half points, 0 (two losses) to 4
+     * @param elo0  the Elo difference of the null hypothesis
+     * @param elo1  the Elo difference of the alternative hypothesis
+     */
+    public static double logLikelihoodRatio(long[] pairs, double elo0, double elo1) {
+        long count = 0;
+        double total = 0;
+        double sum = 0;
+        for (int points = 0; points < pairs.length; points++) {
+            count += pairs[points];
+            total += pairs[points] + PRIOR_PAIRS;
+            sum += (pairs[points] + PRIOR_PAIRS) * points / 4.0;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        double mean = sum / total;
+        double variance = 0;
+        for (int points = 0; points < pairs.length; points++) {
+            variance += (pairs[points] + PRIOR_PAIRS) * Math.pow(points / 4.0 - mean, 2);
+        }
+        variance /= total;
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return count * (score1 - score0) * (2 * mean - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * Half the width of the 95% confidence interval of the Elo difference, from the variance of the game results
+     */
+    public static double errorMargin(long wins, long draws, long losses) {
+        long games = wins + draws + losses;
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = score(wins, draws, losses);
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games;
+        double deviation = Math.sqrt(variance / games);
+        double low = difference(score - Z_95 * deviation);
+        double high = difference(score + Z_95 * deviation);
+        if (Double.isInfinite(low) || Double.isInfinite(high)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (high - low) / 2;
+    }
+}
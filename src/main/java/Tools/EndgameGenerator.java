@@ -0,0 +1,292 @@
+package main.java.Tools;
+
+import main.java.Engine.Bitboards;
+import main.java.Engine.EndgameDatabase;
+import main.java.Engine.EndgameIndex;
+import main.java.Engine.GameState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class builds the endgame databases read by {@link EndgameDatabase}, for every endgame with all tokens
+ * placed and at most the given number of tokens on the board, e.g. 3 against 3, 3 against 4 and 4 against 3
+ * for 7 tokens.
+ * <p>
+ * The endgames are solved from the fewest tokens up. A move closing a mill leads into an endgame with one token
+ * less, which is already solved and is read from its mapped file. The endgames a against b and b against a lead
+ * into each other and are solved together, level by level: a position is won in d plies if a move leads to a
+ * position lost in d - 1 plies, and lost in d plies if every move leads to a position won in less than d plies.
+ * Every level is a pass over the unsolved positions, split over the threads. Positions still unsolved when a
+ * level solves nothing and no longer endgame can add anything are draws, as are positions without a legal move.
+ * <p>
+ * Usage: EndgameGenerator &lt;directory&gt; [max tokens on the board, default 7] [threads]
+ */
+
+public class EndgameGenerator {
+
+    private static final int CHUNK = 1 << 14;
+
+    private static final int MAX_DISTANCE = 255;
+
+    // value of a position after a move which leaves the opponent with 2 tokens
+    private static final int LOST_NOW = -2;
+
+    private static final int SOLVED = 1;
+    private static final int NOT_SOLVED = 2;
+    private static final int UNDECIDED = 0;
+
+    private final Path directory;
+    private final int threads;
+    private final ExecutorService executor;
+
+    private EndgameDatabase database;
+
+    public EndgameGenerator(Path directory, int threads) {
+        this.directory = directory;
+        this.threads = threads;
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: EndgameGenerator <directory> [max tokens on the board] [threads]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int maxTokens = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Files.createDirectories(directory);
+        EndgameGenerator generator = new EndgameGenerator(directory, threads);
+        try {
+            generator.generate(maxTokens);
+        } finally {
+            generator.executor.shutdown();
+        }
+    }
+
+    /**
+     * Solves every endgame with at most the number of tokens on the board
+     *
+     * @param maxTokens the most tokens on the board, at least 6
+     */
+    public void generate(int maxTokens) throws IOException {
+        database = EndgameDatabase.open(directory);
+        for (int total = 6; total <= maxTokens; total++) {
+            for (int a = 3; a <= total - a; a++) {
+                int b = total - a;
+                if (b <= GameState.PIECES_PER_PLAYER) {
+                    solve(a, b);
+                }
+            }
+            //map the endgames of this total, the next total captures into them
+            database = EndgameDatabase.open(directory);
+        }
+    }
+
+    /**
+     * Solves the endgames a against b and b against a
+     */
+    private void solve(int a, int b) throws IOException {
+        long start = System.currentTimeMillis();
+        Pair pair = new Pair(a, b);
+        for (int side = 0; side < pair.size(); side++) {
+            int own = pair.indices[side].getOwn();
+            int opponent = pair.indices[side].getOpponent();
+            if (opponent > 3 && !database.contains(opponent - 1, own)) {
+                throw new IllegalStateException("Endgame " + (opponent - 1) + " against " + own + " is not solved");
+            }
+        }
+        int maxLower = Math.max(database.getMaxDistance(b - 1, a), database.getMaxDistance(a - 1, b));
+
+        int distance = 1;
+        while (true) {
+            if (distance > MAX_DISTANCE) {
+                throw new IllegalStateException("Distance to the end is over " + MAX_DISTANCE + " plies");
+            }
+            long solved = pass(pair, distance);
+            if (solved == 0 && distance > maxLower + 1) {
+                break;
+            }
+            distance++;
+        }
+
+        for (int side = 0; side < pair.size(); side++) {
+            EndgameIndex index = pair.indices[side];
+            byte[] values = pair.values[side];
+            long wins = 0;
+            long losses = 0;
+            int maxDistance = 0;
+            for (byte value : values) {
+                int v = value & 0xFF;
+                if (v != 0) {
+                    maxDistance = Math.max(maxDistance, v);
+                    if (EndgameDatabase.isWin(v)) {
+                        wins++;
+                    } else {
+                        losses++;
+                    }
+                }
+            }
+            Path file = directory.resolve(EndgameDatabase.fileName(index.getOwn(), index.getOpponent()));
+            EndgameDatabase.write(file, index, values, maxDistance);
+            System.out.println(index.getOwn() + " against " + index.getOpponent() + ": positions=" + values.length
+                    + " wins=" + wins + " losses=" + losses + " draws=" + (values.length - wins - losses)
+                    + " longest=" + maxDistance + " plies");
+        }
+        System.out.println("solved " + a + "/" + b + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Solves the positions of the distance, split over the threads
+     *
+     * @return the number of positions solved
+     */
+    private long pass(Pair pair, int distance) {
+        int chunks0 = (pair.values[0].length + CHUNK - 1) / CHUNK;
+        int chunks = pair.size() == 1 ? chunks0 : chunks0 + (pair.values[1].length + CHUNK - 1) / CHUNK;
+        AtomicInteger next = new AtomicInteger();
+        List<Future<Long>> results = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                long solved = 0;
+                for (int chunk = next.getAndIncrement(); chunk < chunks; chunk = next.getAndIncrement()) {
+                    int side = chunk < chunks0 ? 0 : 1;
+                    int from = (side == 0 ? chunk : chunk - chunks0) * CHUNK;
+                    int to = Math.min(from + CHUNK, pair.values[side].length);
+                    for (int i = from; i < to; i++) {
+                        if (pair.values[side][i] == 0 && solve(pair, side, i, distance)) {
+                            solved++;
+                        }
+                    }
+                }
+                return solved;
+            }));
+        }
+        long solved = 0;
+        try {
+            for (Future<Long> result : results) {
+                solved += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generation failed", e.getCause());
+        }
+        return solved;
+    }
+
+    /**
+     * Checks whether the position is won or lost in exactly the distance and stores it
+     */
+    private boolean solve(Pair pair, int side, int i, int distance) {
+        EndgameIndex index = pair.indices[side];
+        int other = pair.size() == 1 ? 0 : side ^ 1;
+        EndgameIndex otherIndex = pair.indices[other];
+        byte[] otherValues = pair.values[other];
+
+        int own = index.ownMask(i);
+        int opponent = index.opponentMask(i, own);
+        int empty = ~(own | opponent) & Bitboards.FULL;
+        boolean flying = index.getOwn() == 3;
+        boolean anyMove = false;
+
+        int pieces = own;
+        while (pieces != 0) {
+            int from = Bitboards.lowestIndex(pieces);
+            pieces &= pieces - 1;
+            int targets = flying ? empty : Bitboards.adjacentMask(from) & empty;
+            while (targets != 0) {
+                int to = Bitboards.lowestIndex(targets);
+                targets &= targets - 1;
+                int after = own ^ Bitboards.bit(from) ^ Bitboards.bit(to);
+                anyMove = true;
+                if (Bitboards.isInMill(to, after)) {
+                    int removable = Bitboards.removableMask(opponent);
+                    while (removable != 0) {
+                        int left = opponent & ~(removable & -removable);
+                        removable &= removable - 1;
+                        //the opponent loses at once when left with 2 tokens, a lost position at distance 0
+                        int value = index.getOpponent() == 3 ? LOST_NOW : database.probe(left, after);
+                        int outcome = check(value, distance);
+                        if (outcome != UNDECIDED) {
+                            return store(pair.values[side], i, distance, outcome);
+                        }
+                    }
+                } else {
+                    int outcome = check(otherValues[otherIndex.indexOf(opponent, after)] & 0xFF, distance);
+                    if (outcome != UNDECIDED) {
+                        return store(pair.values[side], i, distance, outcome);
+                    }
+                }
+            }
+        }
+        //every move leads to a win of the opponent in less than the distance
+        if ((distance & 1) == 0 && anyMove) {
+            pair.values[side][i] = (byte) distance;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the value of the position after a move, for the opponent to move.
+     * At an odd distance the position is won if the move leads to a position lost in distance - 1 plies,
+     * at an even distance the position is not lost yet if the move does not lead to a position won in less.
+     *
+     * @return SOLVED, NOT_SOLVED or UNDECIDED if the other moves have to be checked
+     */
+    private static int check(int value, int distance) {
+        boolean lost = value == LOST_NOW || value != EndgameDatabase.DRAW && !EndgameDatabase.isWin(value);
+        if ((distance & 1) != 0) {
+            return lost && (value == LOST_NOW ? 0 : value) + 1 == distance ? SOLVED : UNDECIDED;
+        }
+        return lost || value == EndgameDatabase.DRAW || value >= distance ? NOT_SOLVED : UNDECIDED;
+    }
+
+    private static boolean store(byte[] values, int i, int distance, int outcome) {
+        if (outcome == SOLVED) {
+            values[i] = (byte) distance;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The endgames a against b and b against a, the same endgame once when a equals b
+     */
+    private static final class Pair {
+
+        final EndgameIndex[] indices;
+        final byte[][] values;
+
+        Pair(int a, int b) {
+            if (a == b) {
+                indices = new EndgameIndex[]{new EndgameIndex(a, b)};
+            } else {
+                indices = new EndgameIndex[]{new EndgameIndex(a, b), new EndgameIndex(b, a)};
+            }
+            values = new byte[indices.length][];
+            for (int side = 0; side < indices.length; side++) {
+                values[side] = new byte[indices[side].size()];
+            }
+        }
+
+        int size() {
+            return indices.length;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package main.java.Tools;
+
+import main.java.Engine.AlphaBetaSearch;
+import main.java.Engine.Evaluation;
+import main.java.Engine.GameState;
+import main.java.Engine.MonteCarloSearch;
+import main.java.Engine.Move;
+import main.java.Engine.MoveGenerator;
+import main.java.Engine.SearchEngine;
+import main.java.Engine.SearchLimits;
+import main.java.Engine.TranspositionTable;
+import main.java.Utils.ReplacementPolicy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class describes an engine taking part in a match, parsed from the command line as
+ * name[:option=value,...], e.g. "alphabeta:depth=6", "mcts:nodes=20000,c=1.0" or "random".
+ * <p>
+ * Engines: alphabeta, mcts and random. Options of every engine: depth, nodes and time (milliseconds) set the
+ * limits of each move, missing limits use the default of the match. alphabeta takes tt (table size in MB),
+ * ordering (the ORDER_ flags of {@link AlphaBetaSearch}) and eval (a file of evaluation weights, see
+ * {@link Evaluation}), mcts takes c (exploration) and light (random instead of heavy playouts).
+ * <p>
+ * The engines of a match think on one thread each, the match runs its games in parallel instead.
+ */
+
+public final class EngineSpec {
+
+    private final String spec;
+    private final String engine;
+    private final int depth;
+    private final long timeMillis;
+    private final long nodes;
+    private final int tableMb;
+    private final int ordering;
+    private final double exploration;
+    private final boolean light;
+    private final int[][] weights;
+
+    private EngineSpec(String spec, String engine, int depth, long timeMillis, long nodes, int tableMb,
+                       int ordering, double exploration, boolean light, int[][] weights) {
+        this.spec = spec;
+        this.engine = engine;
+        this.depth = depth;
+        this.timeMillis = timeMillis;
+        this.nodes = nodes;
+        this.tableMb = tableMb;
+        this.ordering = ordering;
+        this.exploration = exploration;
+        this.light = light;
+        this.weights = weights;
+    }
+
+    /**
+     * Parses an engine description, see the class comment
+     *
+     * @throws IllegalArgumentException if the engine or an option is not known, or the weights cannot be read
+     */
+    public static EngineSpec parse(String spec) {
+        int colon = spec.indexOf(':');
+        String engine = colon < 0 ? spec : spec.substring(0, colon);
+        if (!engine.equals("alphabeta") && !engine.equals("mcts") && !engine.equals("random")) {
+            throw new IllegalArgumentException("Unknown engine " + engine + ", use alphabeta, mcts or random");
+        }
+        int depth = 0;
+        long timeMillis = 0;
+        long nodes = 0;
+        int tableMb = 4;
+        int ordering = AlphaBetaSearch.ORDER_ALL;
+        double exploration = Math.sqrt(2);
+        boolean light = false;
+        int[][] weights = null;
+        if (colon >= 0) {
+            for (String option : spec.substring(colon + 1).split(",")) {
+                int equals = option.indexOf('=');
+                String key = equals < 0 ? option : option.substring(0, equals);
+                String value = equals < 0 ? "" : option.substring(equals + 1);
+                try {
+                    switch (key) {
+                        case "depth":
+                            depth = Integer.parseInt(value);
+                            break;
+                        case "time":
+                            timeMillis = Long.parseLong(value);
+                            break;
+                        case "nodes":
+                            nodes = Long.parseLong(value);
+                            break;
+                        case "tt":
+                            tableMb = Integer.parseInt(value);
+                            break;
+                        case "ordering":
+                            ordering = Integer.parseInt(value);
+                            break;
+                        case "c":
+                            exploration = Double.parseDouble(value);
+                            break;
+                        case "light":
+                            light = true;
+                            break;
+                        case "eval":
+                            weights = Evaluation.readWeights(Paths.get(value));
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option " + key + " in " + spec);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Option " + key + " is not a number in " + spec, e);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Could not read the weights " + value + ": " + e.getMessage(),
+                            e);
+                }
+            }
+        }
+        return new EngineSpec(spec, engine, depth, timeMillis, nodes, tableMb, ordering, exploration, light, weights);
+    }
+
+    /**
+     * Creates a new engine, every game gets its own
+     *
+     * @param seed the seed of an engine with random choices
+     */
+    public SearchEngine createEngine(long seed) {
+        switch (engine) {
+            case "alphabeta":
+                AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(tableMb,
+                        ReplacementPolicy.DEPTH_PREFERRED));
+                search.setOrdering(ordering);
+                search.setWeights(weights);
+                return search;
+            case "mcts":
+                MonteCarloSearch mcts = new MonteCarloSearch(1, seed);
+                mcts.setExploration(exploration);
+                mcts.setHeavyPlayouts(!light);
+                return mcts;
+            default:
+                return new RandomEngine(seed);
+        }
+    }
+
+    /**
+     * Releases the threads of an engine created by {@link #createEngine(long)}
+     */
+    public static void dispose(SearchEngine engine) {
+        engine.shutdown();
+    }
+
+    /**
+     * Limits of every move, the options of the engine override the defaults
+     *
+     * @param defaults the limits of the match
+     */
+    public SearchLimits getLimits(SearchLimits defaults) {
+        if (depth == 0 && timeMillis == 0 && nodes == 0) {
+            return defaults;
+        }
+        return SearchLimits.of(depth == 0 ? SearchLimits.MAX_DEPTH : depth, timeMillis, nodes);
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    /**
+     * Plays a random legal move, a baseline to measure against
+     */
+    private static final class RandomEngine implements SearchEngine {
+
+        private final Random random;
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        RandomEngine(long seed) {
+            random = new Random(seed);
+        }
+
+        @Override
+        public int chooseMove(GameState state, SearchLimits limits) {
+            int count = MoveGenerator.generate(state, moves);
+            return count == 0 ? Move.NONE : moves[random.nextInt(count)];
+        }
+
+        @Override
+        public long getNodes() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package main.java.Tools;
+
+import main.java.Engine.AlphaBetaSearch;
+import main.java.Engine.GameState;
+import main.java.Engine.SearchLimits;
+import main.java.Engine.TranspositionTable;
+import main.java.Utils.ReplacementPolicy;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class measures the move ordering heuristics of the {@link AlphaBetaSearch}. The same positions are
+ * searched to a fixed depth with all heuristics, with each heuristic switched off in turn and with none,
+ * and the nodes searched and the share of cutoffs on the first move are printed.
+ * <p>
+ * Usage: OrderingStats [depth] [positions]
+ */
+
+public class OrderingStats {
+
+    private static final long SEED = 20240502L;
+
+    private static final String[] NAMES = {"all", "no table move", "no mills", "no blocks", "no killers", "no history", "none"};
+
+    private static final int[] ORDERINGS = {
+            AlphaBetaSearch.ORDER_ALL,
+            AlphaBetaSearch.ORDER_ALL & ~AlphaBetaSearch.ORDER_TABLE,
+            AlphaBetaSearch.ORDER_ALL & ~AlphaBetaSearch.ORDER_MILLS,
+            AlphaBetaSearch.ORDER_ALL & ~AlphaBetaSearch.ORDER_BLOCKS,
+            AlphaBetaSearch.ORDER_ALL & ~AlphaBetaSearch.ORDER_KILLERS,
+            AlphaBetaSearch.ORDER_ALL & ~AlphaBetaSearch.ORDER_HISTORY,
+            0
+    };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        List<GameState> positions = SmpBenchmark.randomPositions(count, new Random(SEED));
+        SearchLimits limits = SearchLimits.depth(depth);
+        System.out.println("positions=" + positions.size() + " depth=" + depth);
+
+        long allNodes = 0;
+        for (int i = 0; i < ORDERINGS.length; i++) {
+            AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(16, ReplacementPolicy.DEPTH_PREFERRED));
+            search.setOrdering(ORDERINGS[i]);
+            long nodes = 0;
+            long cutoffs = 0;
+            long firstMoveCutoffs = 0;
+            for (GameState position : positions) {
+                search.getTable().clear();
+                search.chooseMove(position, limits);
+                nodes += search.getNodes();
+                cutoffs += search.getCutoffs();
+                firstMoveCutoffs += search.getFirstMoveCutoffs();
+            }
+            if (i == 0) {
+                allNodes = nodes;
+            }
+            System.out.printf("%-14s nodes=%d (x%.2f of all) first-move-cutoffs=%.1f%%%n", NAMES[i], nodes,
+                    (double) nodes / allNodes, cutoffs == 0 ? 0.0 : 100.0 * firstMoveCutoffs / cutoffs);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package main.java.Tools;
+
+import main.java.Engine.Bitboards;
+import main.java.Engine.GameState;
+import main.java.Engine.Move;
+import main.java.Engine.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class counts the move sequences of a depth from a position (perft), to check that the move generator
+ * follows the rules and to measure its speed. A move closing a mill carries its removal, so a mill with three
+ * removable tokens counts as three moves. Positions where the game is over have no moves.
+ * <p>
+ * With -divide the count of every root move is printed. With -threads=n the root moves are split over a
+ * fork-join pool. With -reference the moves are not taken from {@link MoveGenerator} but found by trying
+ * every possible move with {@link GameState#isLegal(int)}. This only cross-checks the generator against
+ * isLegal, both are part of the same rules core, so a change of the rules themselves gives the same counts in
+ * both modes.
+ * <p>
+ * Changes of the rules are caught by {@link #START_COUNTS} instead, the counts from the start with the rules of
+ * the baseline {@code Others.Board} and {@code Others.GameManager} (commit 8ced984), before the rules core
+ * existed. They were counted by {@code Benchmarks.BoardPerft} in src/jmh, which finds the moves only through the
+ * Position based calls of the UI. A run from the start prints the recorded count next to its own and MISMATCH
+ * when they differ.
+ * <p>
+ * Usage: Perft &lt;depth&gt; [-divide] [-threads=n] [-reference] [moves from the start, e.g. 1 9 2 10 3x9]
+ */
+
+public class Perft {
+
+    /**
+     * Counts from the start for depths 0 to 6 with the rules of the baseline Board, the oracle a new
+     * implementation of the rules has to match
+     */
+    public static final long[] START_COUNTS = {1, 24, 552, 12144, 255024, 5140800, 99274176};
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: Perft <depth> [-divide] [-threads=n] [-reference] [moves from the start]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        boolean reference = false;
+        int threads = 1;
+        GameState state = new GameState();
+        boolean fromStart = true;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-divide")) {
+                divide = true;
+            } else if (arg.equals("-reference")) {
+                reference = true;
+            } else if (arg.startsWith("-threads=")) {
+                threads = Integer.parseInt(arg.substring("-threads=".length()));
+            } else {
+                fromStart = false;
+                int move = Move.parse(arg);
+                if (!state.isLegal(move)) {
+                    throw new IllegalArgumentException("Move " + arg + " is not legal in " + state);
+                }
+                state.apply(move);
+            }
+        }
+
+        System.out.println(state + " depth=" + depth + (reference ? " reference" : "") + " threads=" + threads);
+        long start = System.nanoTime();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = reference ? referenceMoves(state, moves) : MoveGenerator.generate(state, moves);
+        long[] counts = new long[count];
+        if (depth < 1) {
+            counts = new long[0];
+        } else if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                counts = pool.invoke(new RootTask(state, moves, count, depth, reference));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                state.makeMove(moves[i]);
+                counts[i] = perft(state, depth - 1, reference);
+                state.unmakeMove();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        long nodes = depth < 1 ? 1 : 0;
+        for (int i = 0; i < counts.length; i++) {
+            nodes += counts[i];
+            if (divide) {
+                System.out.println(Move.toString(moves[i]) + ": " + counts[i]);
+            }
+        }
+        System.out.println("nodes=" + nodes + " time=" + nanos / 1_000_000L + "ms nodes/s="
+                + (nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos));
+        if (fromStart && depth >= 0 && depth < START_COUNTS.length) {
+            long expected = START_COUNTS[depth];
+            System.out.println("expected=" + expected + (nodes == expected ? " ok" : " MISMATCH"));
+        }
+    }
+
+    /**
+     * Number of move sequences of the depth from the state, the state is restored afterwards
+     *
+     * @param reference whether the moves are found with {@link GameState#isLegal(int)}
+     */
+    public static long perft(GameState state, int depth, boolean reference) {
+        return perft(state, depth, reference, new int[Math.max(depth, 1) + 1][MoveGenerator.MAX_MOVES]);
+    }
+
+    private static long perft(GameState state, int depth, boolean reference, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = buffers[depth];
+        int count = reference ? referenceMoves(state, moves) : MoveGenerator.generate(state, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            state.makeMove(moves[i]);
+            nodes += perft(state, depth - 1, reference, buffers);
+            state.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Finds the moves by trying every placement, movement and removal with {@link GameState#isLegal(int)}.
+     * A move closing a mill is only counted with its removal, as the generator does.
+     */
+    static int referenceMoves(GameState state, int[] moves) {
+        int count = 0;
+        for (int from = 0; from <= Bitboards.SIZE; from++) {
+            for (int to = 0; to <= Bitboards.SIZE; to++) {
+                int move = Move.slide(from, to);
+                if (to == 0) {
+                    //a removal only, after a mill closed by a move without its removal
+                    if (from == 0 && state.isRemovalPending()) {
+                        for (int removal = 1; removal <= Bitboards.SIZE; removal++) {
+                            if (state.isLegal(Move.remove(removal))) {
+                                moves[count++] = Move.remove(removal);
+                            }
+                        }
+                    }
+                    continue;
+                }
+                if (!state.isLegal(move)) {
+                    continue;
+                }
+                state.makeMove(move);
+                boolean mill = state.isRemovalPending();
+                state.unmakeMove();
+                if (!mill) {
+                    moves[count++] = move;
+                    continue;
+                }
+                for (int removal = 1; removal <= Bitboards.SIZE; removal++) {
+                    if (state.isLegal(Move.withRemoval(move, removal))) {
+                        moves[count++] = Move.withRemoval(move, removal);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts every root move in its own task
+     */
+    private static final class RootTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GameState state;
+        private final int[] moves;
+        private final int count;
+        private final int depth;
+        private final boolean reference;
+
+        RootTask(GameState state, int[] moves, int count, int depth, boolean reference) {
+            this.state = state;
+            this.moves = moves;
+            this.count = count;
+            this.depth = depth;
+            this.reference = reference;
+        }
+
+        @Override
+        protected long[] compute() {
+            List<MoveTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(new MoveTask(state, moves[i], depth, reference));
+            }
+            invokeAll(tasks);
+            long[] counts = new long[count];
+            for (int i = 0; i < count; i++) {
+                counts[i] = tasks.get(i).join();
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Counts one root move on its own copy of the state
+     */
+    private static final class MoveTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GameState state;
+        private final int move;
+        private final int depth;
+        private final boolean reference;
+
+        MoveTask(GameState state, int move, int depth, boolean reference) {
+            this.state = state;
+            this.move = move;
+            this.depth = depth;
+            this.reference = reference;
+        }
+
+        @Override
+        protected Long compute() {
+            GameState child = new GameState(state);
+            child.makeMove(move);
+            return perft(child, depth - 1, reference);
+        }
+    }
+}
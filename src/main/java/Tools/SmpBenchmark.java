@@ -0,0 +1,79 @@
+package main.java.Tools;
+
+import main.java.Engine.GameState;
+import main.java.Engine.MoveGenerator;
+import main.java.Engine.ParallelSearch;
+import main.java.Engine.SearchLimits;
+import main.java.Engine.TranspositionTable;
+import main.java.Utils.ReplacementPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class measures how the {@link ParallelSearch} scales with the number of threads. The same positions
+ * are searched to a fixed depth with 1, 2, 4 ... threads and the nodes per second and the time to reach the
+ * depth are printed, with the speedup over one thread.
+ * <p>
+ * Usage: SmpBenchmark [max threads] [depth] [positions] [table MB]
+ */
+
+public class SmpBenchmark {
+
+    private static final long SEED = 20240501L;
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int tableMb = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        List<GameState> positions = randomPositions(count, new Random(SEED));
+        SearchLimits limits = SearchLimits.depth(depth);
+        System.out.println("positions=" + positions.size() + " depth=" + depth + " table=" + tableMb + "MB");
+
+        long baseMillis = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(tableMb, ReplacementPolicy.DEPTH_PREFERRED));
+            long millis = 0;
+            long nodes = 0;
+            for (GameState position : positions) {
+                search.getTable().clear();
+                search.chooseMove(position, limits);
+                millis += search.getElapsedMillis();
+                nodes += search.getNodes();
+            }
+            search.shutdown();
+            if (threads == 1) {
+                baseMillis = millis;
+            }
+            System.out.printf("threads=%d time-to-depth=%dms nps=%d speedup=%.2f%n", threads, millis,
+                    millis == 0 ? 0 : nodes * 1000 / millis, millis == 0 ? 0.0 : (double) baseMillis / millis);
+            if (threads >= maxThreads) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Plays random moves from the start to get a mix of placement and movement positions
+     */
+    static List<GameState> randomPositions(int count, Random random) {
+        List<GameState> positions = new ArrayList<>(count);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        while (positions.size() < count) {
+            GameState state = new GameState();
+            int plies = 8 + random.nextInt(30);
+            while (!state.isGameOver() && state.getPly() < plies) {
+                state.makeMove(moves[random.nextInt(MoveGenerator.generate(state, moves))]);
+            }
+            if (!state.isGameOver()) {
+                positions.add(state);
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,153 @@
+package main.java.Tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class tests a candidate engine against a baseline with a sequential probability ratio test, to decide
+ * whether an engine or evaluation change is an improvement without playing a fixed, long match. The games are
+ * played by {@link Tournament}, in pairs with the same opening and swapped colours.
+ * <p>
+ * The hypotheses are that the candidate is elo0 stronger (H0) or elo1 stronger (H1) than the baseline. After
+ * every batch of pairs the log likelihood ratio of the pair scores is compared with the bounds
+ * ln(beta / (1 - alpha)) and ln((1 - beta) / alpha), with alpha = beta = 0.05. From {@link #MIN_PAIRS} pairs on
+ * the test stops as soon as a bound is crossed: above the upper bound H1 is accepted, below the lower bound H0.
+ * If neither happens within the maximum number of games the test is inconclusive.
+ * <p>
+ * The verdict is written as JSON to the verdict file: "accepted" for H1, "rejected" for H0 or "inconclusive",
+ * with the bounds, the log likelihood ratio and the results.
+ * <p>
+ * Usage: Sprt &lt;baseline&gt; &lt;candidate&gt; [elo0, default 0] [elo1, default 10]
+ * [verdict file, default sprt.json] [max games, default 20000] [threads, default all cores] [seed, default 1],
+ * engines as described in {@link EngineSpec}
+ */
+
+public class Sprt {
+
+    public static final double ALPHA = 0.05;
+    public static final double BETA = 0.05;
+
+    /**
+     * Pairs played before the bounds are checked, so a short lucky streak cannot decide the test
+     */
+    public static final int MIN_PAIRS = 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: Sprt <baseline> <candidate> [elo0] [elo1] [verdict file] [max games] "
+                    + "[threads] [seed]");
+            return;
+        }
+        EngineSpec baseline = EngineSpec.parse(args[0]);
+        EngineSpec candidate = EngineSpec.parse(args[1]);
+        double elo0 = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        double elo1 = args.length > 3 ? Double.parseDouble(args[3]) : 10;
+        Path verdictFile = Paths.get(args.length > 4 ? args[4] : "sprt.json");
+        int maxGames = args.length > 5 ? Integer.parseInt(args[5]) : 20000;
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 1L;
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0");
+        }
+
+        double lower = Math.log(BETA / (1 - ALPHA));
+        double upper = Math.log((1 - BETA) / ALPHA);
+        System.out.printf(Locale.ROOT, "%s vs %s: elo0=%.1f elo1=%.1f bounds=[%.3f, %.3f]%n", candidate, baseline,
+                elo0, elo1, lower, upper);
+
+        long start = System.currentTimeMillis();
+        long[] pairs = new long[5];
+        long[] outcomes = new long[3];
+        int played = 0;
+        double llr = 0;
+        String verdict = "inconclusive";
+        int batch = 2 * threads;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (played + 2 <= maxGames) {
+                int games = Math.min(batch, (maxGames - played) / 2 * 2);
+                List<Tournament.Game> results = Tournament.playAll(candidate, baseline, seed, played, games, pool);
+                for (int i = 0; i < results.size(); i += 2) {
+                    Tournament.Game first = results.get(i);
+                    Tournament.Game second = results.get(i + 1);
+                    pairs[halfPoints(first) + halfPoints(second)]++;
+                    outcomes[first.outcome]++;
+                    outcomes[second.outcome]++;
+                }
+                played += games;
+                llr = Elo.logLikelihoodRatio(pairs, elo0, elo1);
+                System.out.printf(Locale.ROOT, "games=%d wins=%d draws=%d losses=%d llr=%.3f%n", played,
+                        outcomes[Tournament.WIN], outcomes[Tournament.DRAW], outcomes[Tournament.LOSS], llr);
+                if (played / 2 < MIN_PAIRS) {
+                    continue;
+                }
+                if (llr >= upper) {
+                    verdict = "accepted";
+                    break;
+                }
+                if (llr <= lower) {
+                    verdict = "rejected";
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        double score = Elo.score(outcomes[Tournament.WIN], outcomes[Tournament.DRAW], outcomes[Tournament.LOSS]);
+        String json = String.format(Locale.ROOT, "{%n"
+                        + "  \"verdict\": \"%s\",%n"
+                        + "  \"baseline\": \"%s\",%n"
+                        + "  \"candidate\": \"%s\",%n"
+                        + "  \"elo0\": %.2f,%n"
+                        + "  \"elo1\": %.2f,%n"
+                        + "  \"alpha\": %.3f,%n"
+                        + "  \"beta\": %.3f,%n"
+                        + "  \"llr\": %.4f,%n"
+                        + "  \"lowerBound\": %.4f,%n"
+                        + "  \"upperBound\": %.4f,%n"
+                        + "  \"games\": %d,%n"
+                        + "  \"wins\": %d,%n"
+                        + "  \"draws\": %d,%n"
+                        + "  \"losses\": %d,%n"
+                        + "  \"pairs\": [%d, %d, %d, %d, %d],%n"
+                        + "  \"elo\": %s,%n"
+                        + "  \"eloError\": %s,%n"
+                        + "  \"seed\": %d,%n"
+                        + "  \"millis\": %d%n"
+                        + "}%n",
+                verdict, escape(baseline.toString()), escape(candidate.toString()), elo0, elo1, ALPHA, BETA, llr,
+                lower, upper, played, outcomes[Tournament.WIN], outcomes[Tournament.DRAW], outcomes[Tournament.LOSS],
+                pairs[0], pairs[1], pairs[2], pairs[3], pairs[4], number(Elo.difference(score)),
+                number(Elo.errorMargin(outcomes[Tournament.WIN], outcomes[Tournament.DRAW],
+                        outcomes[Tournament.LOSS])), seed, System.currentTimeMillis() - start);
+        Files.write(verdictFile, json.getBytes(StandardCharsets.UTF_8));
+        System.out.println("verdict=" + verdict + " written to " + verdictFile);
+    }
+
+    /**
+     * Points of the candidate in half points, 2 for a win
+     */
+    private static int halfPoints(Tournament.Game game) {
+        return game.outcome == Tournament.WIN ? 2 : game.outcome == Tournament.DRAW ? 1 : 0;
+    }
+
+    /**
+     * A JSON number, null for an infinite or undefined value
+     */
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.2f", value) : "null";
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,199 @@
+package main.java.Tools;
+
+import main.java.Engine.GameState;
+import main.java.Engine.Move;
+import main.java.Engine.MoveGenerator;
+import main.java.Engine.SearchEngine;
+import main.java.Engine.SearchLimits;
+import main.java.Others.GameManager;
+import main.java.Player.AIPlayer;
+import main.java.Utils.Colour;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * @author Priyesh
+ * <p>
+ * This class plays matches between two engines without the UI, on a headless {@link GameManager}, to measure
+ * engine changes. The games run in parallel on a fork-join pool, one game per thread.
+ * <p>
+ * Games are played in pairs: both games of a pair start with the same random opening placements and the
+ * engines swap colours, so neither engine profits from a lucky opening. The opening of a pair and the engine
+ * seeds of a game are derived from the seed of the match, the same seed plays the same games with depth or
+ * node limits. A game still running after {@link #MAX_PLIES} plies is a draw. An engine without limits of
+ * its own searches to depth 4.
+ * <p>
+ * Reports wins, draws and losses of the first engine, the Elo difference with its 95% error margin, the
+ * average game length and the nodes per second of both engines.
+ * <p>
+ * Usage: Tournament &lt;engine A&gt; &lt;engine B&gt; [games, default 100] [threads, default all cores]
+ * [seed, default 1], engines as described in {@link EngineSpec}, e.g. Tournament alphabeta:depth=5 mcts:nodes=20000
+ */
+
+public class Tournament {
+
+    public static final int MAX_PLIES = 300;
+
+    // random placements at the start of every pair of games
+    public static final int OPENING_PLIES = 2;
+
+    // limits of an engine without its own limits
+    public static final SearchLimits DEFAULT_LIMITS = SearchLimits.depth(4);
+
+    public static final int WIN = 0;
+    public static final int DRAW = 1;
+    public static final int LOSS = 2;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament <engine A> <engine B> [games] [threads] [seed]");
+            return;
+        }
+        EngineSpec first = EngineSpec.parse(args[0]);
+        EngineSpec second = EngineSpec.parse(args[1]);
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+
+        System.out.println(first + " vs " + second + ": games=" + games + " threads=" + threads + " seed=" + seed);
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Game> results;
+        try {
+            results = playAll(first, second, seed, 0, games, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        long[] outcomes = new long[3];
+        long plies = 0;
+        long[] nodes = new long[2];
+        long[] nanos = new long[2];
+        for (Game game : results) {
+            outcomes[game.outcome]++;
+            plies += game.plies;
+            for (int engine = 0; engine < 2; engine++) {
+                nodes[engine] += game.nodes[engine];
+                nanos[engine] += game.nanos[engine];
+            }
+        }
+        double score = Elo.score(outcomes[WIN], outcomes[DRAW], outcomes[LOSS]);
+        System.out.printf("%s: wins=%d draws=%d losses=%d score=%.1f%%%n", first, outcomes[WIN], outcomes[DRAW],
+                outcomes[LOSS], 100 * score);
+        System.out.printf("Elo difference: %.1f +/- %.1f%n", Elo.difference(score),
+                Elo.errorMargin(outcomes[WIN], outcomes[DRAW], outcomes[LOSS]));
+        System.out.printf("average length=%.1f plies%n", results.isEmpty() ? 0.0 : (double) plies / results.size());
+        System.out.println(first + ": nodes/s=" + perSecond(nodes[0], nanos[0]));
+        System.out.println(second + ": nodes/s=" + perSecond(nodes[1], nanos[1]));
+        System.out.println("time=" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static long perSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * Plays the games numbered from the first number on the pool
+     *
+     * @param first  the engine the outcomes are counted for
+     * @param second the other engine
+     * @param seed   the seed of the match
+     * @param from   the number of the first game, the numbers decide the openings and colours
+     * @param games  the number of games
+     * @return the games in the order of their numbers
+     */
+    public static List<Game> playAll(EngineSpec first, EngineSpec second, long seed, int from, int games,
+                                     ForkJoinPool pool) {
+        List<Callable<Game>> tasks = new ArrayList<>(games);
+        for (int number = from; number < from + games; number++) {
+            int game = number;
+            tasks.add(() -> play(first, second, seed, game));
+        }
+        List<Game> results = new ArrayList<>(games);
+        try {
+            for (Future<Game> result : pool.invokeAll(tasks)) {
+                results.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Match interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Plays one game, the first engine has BLACK in even games and WHITE in odd games
+     */
+    public static Game play(EngineSpec first, EngineSpec second, long seed, int number) {
+        GameManager manager = new GameManager();
+        GameState state = manager.getState();
+
+        //the same opening for both games of a pair
+        Random opening = new Random(seed * 0x9E3779B97F4A7C15L + number / 2);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        while (state.getPly() < OPENING_PLIES && !state.isGameOver()) {
+            manager.apply(moves[opening.nextInt(MoveGenerator.generate(state, moves))]);
+        }
+
+        int firstSide = number % 2 == 0 ? GameState.BLACK : GameState.WHITE;
+        EngineSpec[] specs = {first, second};
+        SearchEngine[] engines = {first.createEngine(seed + 2L * number), second.createEngine(seed + 2L * number + 1)};
+        AIPlayer[] players = {
+                new AIPlayer(first.toString(), Colour.values()[firstSide], engines[0]),
+                new AIPlayer(second.toString(), Colour.values()[firstSide ^ 1], engines[1])
+        };
+        Game game = new Game(number);
+        try {
+            while (!state.isGameOver() && state.getPly() < MAX_PLIES) {
+                int engine = state.getSideToMove() == firstSide ? 0 : 1;
+                long start = System.nanoTime();
+                int move = players[engine].chooseMove(state, specs[engine].getLimits(DEFAULT_LIMITS));
+                game.nanos[engine] += System.nanoTime() - start;
+                game.nodes[engine] += engines[engine].getNodes();
+                if (move == Move.NONE) {
+                    break;
+                }
+                manager.apply(move);
+            }
+        } finally {
+            EngineSpec.dispose(engines[0]);
+            EngineSpec.dispose(engines[1]);
+        }
+
+        int result = state.getResult();
+        if (result == firstSide) {
+            game.outcome = WIN;
+        } else if (result == (firstSide ^ 1)) {
+            game.outcome = LOSS;
+        } else {
+            game.outcome = DRAW;
+        }
+        game.plies = state.getPly();
+        return game;
+    }
+
+    /**
+     * The result of one game, for the first engine
+     */
+    public static final class Game {
+
+        public final int number;
+        public int outcome;
+        public int plies;
+        // nodes and thinking time of the first and the second engine
+        public final long[] nodes = new long[2];
+        public final long[] nanos = new long[2];
+
+        Game(int number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package main.java.Utils;
+
+/**
+ * @author Priyesh
+ *
+ * This enum is used to represent when the transposition table overwrites an entry.
+ *
+ * ALWAYS - The new entry always replaces the old one.
+ * DEPTH_PREFERRED - The new entry replaces the old one if it is for the same position, from a deeper or equal
+ * search, or the old entry is left over from an earlier search.
+ *
+ */
+public enum ReplacementPolicy {
+    ALWAYS, DEPTH_PREFERRED
+}